@@ -0,0 +1,82 @@
+package com.brucetoo.drawerview;
+
+/**
+ * Quality level of {@link DrawerLayout} driven by frame intervals of drag and settle,
+ * enable it with {@link DrawerLayout#setAdaptiveQualityEnabled(boolean)}.
+ * Level steps down one stage when frames are dropped in a short window,
+ * and steps back up one stage after a run of healthy frames
+ */
+final class AdaptiveQuality {
+
+    //dropped vsyncs in a window that step quality down
+    static final int STEP_DOWN_DROPPED_FRAMES = 3;
+    static final int DROP_WINDOW_FRAMES = 30;
+    //healthy frames in a row that step quality up,about 2 seconds of motion at 60fps
+    static final int STEP_UP_HEALTHY_FRAMES = 120;
+
+    private final long mFrameIntervalNanos;
+    private final int mMaxLevel;
+    private final Listener mListener;
+
+    private int mLevel;
+    private int mWindowFrames;
+    private int mDroppedFrames;
+    private int mHealthyFrames;
+
+    /**
+     * @param frameIntervalNanos vsync period of display
+     * @param maxLevel           the lowest quality it steps down to
+     * @param listener           called when level changes
+     */
+    AdaptiveQuality(long frameIntervalNanos, int maxLevel, Listener listener) {
+        mFrameIntervalNanos = frameIntervalNanos;
+        mMaxLevel = maxLevel;
+        mListener = listener;
+    }
+
+    int getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * @param frameIntervalNanos time since last frame,0 for the first frame of a motion
+     */
+    void onFrame(long frameIntervalNanos) {
+        if (frameIntervalNanos <= 0) {
+            return;
+        }
+        //same rounding as DrawerMetrics,a frame lasting 2.4 vsync periods dropped 1 frame
+        final long missed = (frameIntervalNanos + mFrameIntervalNanos / 2) / mFrameIntervalNanos - 1;
+        if (missed > 0) {
+            mHealthyFrames = 0;
+            mDroppedFrames += missed;
+            if (mDroppedFrames >= STEP_DOWN_DROPPED_FRAMES) {
+                mWindowFrames = 0;
+                mDroppedFrames = 0;
+                if (mLevel < mMaxLevel) {
+                    setLevel(mLevel + 1);
+                }
+                return;
+            }
+        } else if (++mHealthyFrames >= STEP_UP_HEALTHY_FRAMES) {
+            mHealthyFrames = 0;
+            if (mLevel > 0) {
+                setLevel(mLevel - 1);
+            }
+        }
+        if (++mWindowFrames >= DROP_WINDOW_FRAMES) {
+            mWindowFrames = 0;
+            mDroppedFrames = 0;
+        }
+    }
+
+    private void setLevel(int level) {
+        final int oldLevel = mLevel;
+        mLevel = level;
+        mListener.onLevelChanged(oldLevel, level);
+    }
+
+    interface Listener {
+        void onLevelChanged(int oldLevel, int newLevel);
+    }
+}
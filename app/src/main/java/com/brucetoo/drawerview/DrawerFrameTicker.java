@@ -0,0 +1,52 @@
+package com.brucetoo.drawerview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Report interval between rendered frames with {@link Choreographer},only loaded from JELLY_BEAN
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+final class DrawerFrameTicker implements Choreographer.FrameCallback {
+
+    private final Callback mCallback;
+    private boolean mRunning;
+    private long mLastFrameNanos;
+
+    DrawerFrameTicker(Callback callback) {
+        mCallback = callback;
+    }
+
+    void start() {
+        if (!mRunning) {
+            mRunning = true;
+            mLastFrameNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    void stop() {
+        if (mRunning) {
+            mRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        mCallback.onFrame(mLastFrameNanos == 0 ? 0 : frameTimeNanos - mLastFrameNanos);
+        mLastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    interface Callback {
+        /**
+         * @param frameIntervalNanos time since last frame,0 for the first frame
+         */
+        void onFrame(long frameIntervalNanos);
+    }
+}
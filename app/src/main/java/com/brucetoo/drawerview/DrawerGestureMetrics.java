@@ -0,0 +1,119 @@
+package com.brucetoo.drawerview;
+
+/**
+ * Frame timing and layout pass statistics of one gesture of {@link DrawerLayout}
+ * NOTE:instances handed out by {@link DrawerMetrics} are reused,
+ * use {@link DrawerGestureMetrics#set(DrawerGestureMetrics)} to keep a copy
+ */
+public final class DrawerGestureMetrics {
+
+    int gesture = DrawerMetrics.GESTURE_NONE;
+    long startTimeNanos;
+    long durationNanos;
+    int frameCount;
+    int droppedFrames;
+    long worstFrameNanos;
+    int measureCount;
+    int layoutCount;
+    long listenerNanos;
+
+    /**
+     * @return one of {@link DrawerMetrics#GESTURE_DRAG},{@link DrawerMetrics#GESTURE_SETTLE},
+     * {@link DrawerMetrics#GESTURE_OPEN},{@link DrawerMetrics#GESTURE_CLOSE},{@link DrawerMetrics#GESTURE_SLIDE_TO}
+     */
+    public int getGesture() {
+        return gesture;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when gesture started
+     */
+    public long getStartTimeNanos() {
+        return startTimeNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return frames rendered during the gesture
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return vsync periods missed between rendered frames
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * @return the longest interval between two rendered frames
+     */
+    public long getWorstFrameNanos() {
+        return worstFrameNanos;
+    }
+
+    /**
+     * @return times of {@link DrawerLayout#onMeasure(int, int)} during the gesture
+     */
+    public int getMeasureCount() {
+        return measureCount;
+    }
+
+    /**
+     * @return times of {@link DrawerLayout#onLayout(boolean, int, int, int, int)} during the gesture
+     */
+    public int getLayoutCount() {
+        return layoutCount;
+    }
+
+    /**
+     * @return time spent in {@link DrawerLayout.DragRatioListener} callbacks
+     */
+    public long getListenerNanos() {
+        return listenerNanos;
+    }
+
+    /**
+     * copy all values from another metrics
+     */
+    public void set(DrawerGestureMetrics other) {
+        gesture = other.gesture;
+        startTimeNanos = other.startTimeNanos;
+        durationNanos = other.durationNanos;
+        frameCount = other.frameCount;
+        droppedFrames = other.droppedFrames;
+        worstFrameNanos = other.worstFrameNanos;
+        measureCount = other.measureCount;
+        layoutCount = other.layoutCount;
+        listenerNanos = other.listenerNanos;
+    }
+
+    void reset(int gesture, long startTimeNanos) {
+        this.gesture = gesture;
+        this.startTimeNanos = startTimeNanos;
+        durationNanos = 0;
+        frameCount = 0;
+        droppedFrames = 0;
+        worstFrameNanos = 0;
+        measureCount = 0;
+        layoutCount = 0;
+        listenerNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return DrawerMetrics.gestureToString(gesture)
+                + " duration=" + durationNanos / 1000000f + "ms"
+                + " frames=" + frameCount
+                + " dropped=" + droppedFrames
+                + " worstFrame=" + worstFrameNanos / 1000000f + "ms"
+                + " measures=" + measureCount
+                + " layouts=" + layoutCount
+                + " listener=" + listenerNanos / 1000000f + "ms";
+    }
+}
@@ -1,23 +1,37 @@
 package com.brucetoo.drawerview;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.ColorInt;
+import android.support.annotation.FloatRange;
 import android.support.annotation.IdRes;
+import android.support.annotation.IntDef;
+import android.support.annotation.LayoutRes;
 import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.widget.ViewDragHelper;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.animation.AnimationUtils;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 
 /**
  * Created by Bruce Too
@@ -29,7 +43,117 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
     private static final String TAG = DrawerLayout.class.getSimpleName();
 
     private static final int DEFAULT_MAX_WIDTH = 500;
+    private static final int MAX_DRAG_PREDICTION_MILLIS = 32;
+    //samples older than this are too stale to predict with
+    private static final long MAX_PREDICTION_SAMPLE_AGE = 50;
+    //throttled drag ratio is dispatched at most once in this time,about 3 frames
+    private static final long THROTTLED_DRAG_RATIO_MILLIS = 48;
     private static final int DEFAULT_MASK_COLOR = 0x77000000;
+    //no valid measure spec pair equals it
+    private static final long INVALID_MEASURE_KEY = -1;
+    //prewarm on touch down at edge is dropped if no drag follows in this time
+    private static final long PREWARM_TIMEOUT = 500;
+
+    //classification of a gesture made at ACTION_DOWN
+    private static final int TOUCH_PASS_THROUGH = 0;//drawer closed and away from edge,ignore it
+    private static final int TOUCH_EDGE = 1;//drawer closed and at edge,may start an edge drag
+    private static final int TOUCH_DRAWER = 2;//drawer visible or moving,may hit it or its mask
+
+    /**
+     * never promote {@link DrawerLayout#mDragView} to a hardware layer
+     */
+    public static final int LAYER_POLICY_OFF = 0;
+    /**
+     * promote {@link DrawerLayout#mDragView} to a hardware layer only when it's dragging or settling
+     */
+    public static final int LAYER_POLICY_DURING_MOTION = 1;
+    /**
+     * keep {@link DrawerLayout#mDragView} in a hardware layer all the time
+     */
+    public static final int LAYER_POLICY_ALWAYS = 2;
+
+    /**
+     * detect opacity of {@link DrawerLayout#mDragView} from its background,alpha and scale
+     */
+    public static final int DRAWER_OPACITY_AUTO = 0;
+    /**
+     * {@link DrawerLayout#mDragView} always covers everything under it
+     */
+    public static final int DRAWER_OPACITY_OPAQUE = 1;
+    /**
+     * content under {@link DrawerLayout#mDragView} may be seen through it
+     */
+    public static final int DRAWER_OPACITY_TRANSLUCENT = 2;
+
+    /**
+     * all effects,mask and settle engine as configured
+     */
+    public static final int QUALITY_FULL = 0;
+    /**
+     * drag effects(fade,scale,parallax) are off and mask keeps one alpha during motion
+     */
+    public static final int QUALITY_NO_EFFECTS = 1;
+    /**
+     * drag ratio listeners are also throttled to one dispatch in a few frames
+     */
+    public static final int QUALITY_THROTTLED_LISTENERS = 2;
+    /**
+     * settle is also done by ViewDragHelper's scroller instead of settle engine
+     */
+    public static final int QUALITY_SIMPLE_SETTLE = 3;
+
+    /**
+     * drawer slides in from left edge,set by leftDragView attribute
+     */
+    public static final int EDGE_LEFT = ViewDragHelper.EDGE_LEFT;
+    /**
+     * drawer slides in from right edge,set by dragView or dragLayout attribute
+     */
+    public static final int EDGE_RIGHT = ViewDragHelper.EDGE_RIGHT;
+    /**
+     * drawer slides in from top edge,set by topDragView attribute
+     */
+    public static final int EDGE_TOP = ViewDragHelper.EDGE_TOP;
+    /**
+     * drawer slides in from bottom edge,set by bottomDragView attribute
+     */
+    public static final int EDGE_BOTTOM = ViewDragHelper.EDGE_BOTTOM;
+
+    /**
+     * drawer is not moving
+     */
+    public static final int STATE_IDLE = ViewDragHelper.STATE_IDLE;
+    /**
+     * drawer is dragged by user
+     */
+    public static final int STATE_DRAGGING = ViewDragHelper.STATE_DRAGGING;
+    /**
+     * drawer is animating to its final position or width
+     */
+    public static final int STATE_SETTLING = ViewDragHelper.STATE_SETTLING;
+
+    private static final DragRatioListener[] EMPTY_RATIO_LISTENERS = new DragRatioListener[0];
+    private static final DrawerStateListener[] EMPTY_STATE_LISTENERS = new DrawerStateListener[0];
+
+    @IntDef({LAYER_POLICY_OFF, LAYER_POLICY_DURING_MOTION, LAYER_POLICY_ALWAYS})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface LayerPolicy {
+    }
+
+    @IntDef({DRAWER_OPACITY_AUTO, DRAWER_OPACITY_OPAQUE, DRAWER_OPACITY_TRANSLUCENT})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface DrawerOpacity {
+    }
+
+    @IntDef({QUALITY_FULL, QUALITY_NO_EFFECTS, QUALITY_THROTTLED_LISTENERS, QUALITY_SIMPLE_SETTLE})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface QualityLevel {
+    }
+
+    @IntDef({EDGE_LEFT, EDGE_RIGHT, EDGE_TOP, EDGE_BOTTOM})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface DrawerEdge {
+    }
 
     private ViewDragHelper mViewDragHelper;
 
@@ -41,18 +165,115 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
     private int mDragViewResId;
     @IdRes
     private int mContentViewResId;
+    @LayoutRes
+    private int mDragLayoutResId;
+    private boolean mIsPreInflateWhenIdle;
+    private OnDragViewInflatedListener mDragViewInflatedListener;
+    private boolean mIsDetachWhenClosed;
+    private boolean mIsDragViewDetached;
+    private OnDragViewDetachListener mDragViewDetachListener;
+    //the active drawer,all drag/settle/draw state below belongs to it
     private View mDragView;
+    @DrawerEdge
+    private int mDragEdge = EDGE_RIGHT;
+    //drawers of every edge indexed by edgeIndex(),inactive ones are INVISIBLE
+    //and skipped in measure/layout like a detached drawer
+    private final View[] mEdgeDragViews = new View[4];
+    private final int[] mEdgeDragViewResIds = {-1, -1, -1, -1};
+    private final int[] mEdgeDragMaxSizes = new int[4];
+    private final Rect mUncoveredRect = new Rect();
     private View mContentView;
-    private View mMaskView;
     @ColorInt
     private int mMaskColor;
-
+    private final Paint mMaskPaint = new Paint();
+    //mask alpha ratio held during motion when quality is reduced,-1 when it follows drag ratio
+    private float mHeldMaskRatio = -1;
+    private boolean mIsMaskTouched;
+    private int mTouchClass = TOUCH_PASS_THROUGH;
+    //edge touched by a TOUCH_EDGE gesture
+    private int mTouchEdge = EDGE_RIGHT;
+    private int mEdgeSize = -1;
+
+    //left bound of dragView as if it was a right drawer,it's mirrored for left/top drawers
+    //and taken as top for top/bottom drawers,see toDragViewPosition()
     private int mDragViewLeft;
     private int mScreenWidth;
+    private int mScreenHeight;
     private float mDragRatio;
     private View mReleaseView;
-    private DragRatioListener mDragRatioListener;
+    //copied when listeners change,so dispatching never allocates
+    private DragRatioListener[] mDragRatioListeners = EMPTY_RATIO_LISTENERS;
+    private DrawerStateListener[] mDrawerStateListeners = EMPTY_STATE_LISTENERS;
+    private boolean mIsCoalesceDragRatio;
+    private boolean mIsDragRatioDispatchPosted;
+    private long mLastDragRatioDispatchTime;
+    private int mDrawerState = STATE_IDLE;
+    private boolean mIsReportedOpen;
+    //drawer position set before first layout,applied in onLayout()
+    private boolean mHasPendingJump;
+    private boolean mIsPendingJumpOpen;
     private boolean mIsMaskEnable;
+    @DrawerOpacity
+    private int mDrawerOpacity;
+    //pixels drawn by children and mask in current and last frame,only counted in debug build
+    private long mDrawnPixels;
+    private float mLastFrameOverdraw;
+    //content was clipped by dragView in last frame,so the clip must follow dragView
+    private boolean mIsContentClipped;
+
+    //built-in drag effects,only applied as render properties
+    private float mDragMinAlpha = 1f;
+    private float mDragMinScale = 1f;
+    private float mDragScalePivotX = 0.5f;
+    private float mContentParallax;
+    private float mDragElevation;
+    //elevation of dragView is left alone until one is set,then it's always written,0 included
+    private boolean mIsDragElevationSet;
+    private int mPivotWidth = -1;
+    private int mPivotHeight = -1;
+
+    private float mFreezeContentRatio;
+    private boolean mIsContentFrozen;
+    private Bitmap mContentSnapshot;
+    private Canvas mSnapshotCanvas;
+
+    @LayerPolicy
+    private int mLayerPolicy;
+    private boolean mIsDragLayerPromoted;
+    private int mDragLayerTypeBeforePromote;
+    private final DrawerWidthAnimation mWidthAnimation = new DrawerWidthAnimation();
+    private boolean mIsPrewarming;
+
+    private DrawerMetrics mMetrics;
+    private DrawerTouchTrace mTouchTrace;
+    private DrawerStateSnapshot mStateSnapshot;
+    private boolean mIsSnapshotPerFrame;
+    private boolean mIsSnapshotPublishPosted;
+    private boolean mIsLowLatencyDrag;
+    private int mDragPredictionMillis;
+    private boolean mIsUnbufferedDispatchRequested;
+    //last touch sample,velocity of prediction is taken from it to the newest sample
+    private long mLastSampleTime = -1;
+    private float mLastSampleX;
+    private float mLastSampleY;
+    //predicted offset of the next drag along the drag direction,and the part of it applied to dragView
+    private int mDragPrediction;
+    private int mAppliedDragPrediction;
+    @QualityLevel
+    private int mQualityLevel = QUALITY_FULL;
+    private AdaptiveQuality mAdaptiveQuality;
+    private DrawerFrameTicker mQualityTicker;
+    private OnQualityChangeListener mQualityChangeListener;
+    private SettleEngine mSettleEngine;
+
+    //last measure specs of children and the state validated in onMeasure
+    private long mDragMeasureKey = INVALID_MEASURE_KEY;
+    private long mContentMeasureKey = INVALID_MEASURE_KEY;
+    private int mLastWidthMeasureSpec;
+    private int mLastHeightMeasureSpec;
+    private int mValidatedChildCount = -1;
+    private int mValidatedDragWidth = -1;
+    private LayoutParams mValidatedContentParams;
 
     public DrawerLayout(Context context) {
         this(context, null);
@@ -74,121 +295,486 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
         if (array != null) {
             mDragMaxWidth = array.getDimensionPixelSize(R.styleable.DrawerLayout_dragMaxWidth, DEFAULT_MAX_WIDTH);
             mDragViewResId = array.getResourceId(R.styleable.DrawerLayout_dragView, -1);
+            mEdgeDragViewResIds[edgeIndex(EDGE_LEFT)] = array.getResourceId(R.styleable.DrawerLayout_leftDragView, -1);
+            mEdgeDragViewResIds[edgeIndex(EDGE_RIGHT)] = mDragViewResId;
+            mEdgeDragViewResIds[edgeIndex(EDGE_TOP)] = array.getResourceId(R.styleable.DrawerLayout_topDragView, -1);
+            mEdgeDragViewResIds[edgeIndex(EDGE_BOTTOM)] = array.getResourceId(R.styleable.DrawerLayout_bottomDragView, -1);
+            final int dragMaxHeight = array.getDimensionPixelSize(R.styleable.DrawerLayout_dragMaxHeight, DEFAULT_MAX_WIDTH);
+            mEdgeDragMaxSizes[edgeIndex(EDGE_LEFT)] = mDragMaxWidth;
+            mEdgeDragMaxSizes[edgeIndex(EDGE_RIGHT)] = mDragMaxWidth;
+            mEdgeDragMaxSizes[edgeIndex(EDGE_TOP)] = dragMaxHeight;
+            mEdgeDragMaxSizes[edgeIndex(EDGE_BOTTOM)] = dragMaxHeight;
             mContentViewResId = array.getResourceId(R.styleable.DrawerLayout_contentView, -1);
+            mDragLayoutResId = array.getResourceId(R.styleable.DrawerLayout_dragLayout, 0);
+            mIsPreInflateWhenIdle = array.getBoolean(R.styleable.DrawerLayout_preInflateWhenIdle, false);
+            mEdgeSize = array.getDimensionPixelSize(R.styleable.DrawerLayout_edgeSize, -1);
+            mIsDetachWhenClosed = array.getBoolean(R.styleable.DrawerLayout_detachWhenClosed, false);
             mMaskColor = array.getColor(R.styleable.DrawerLayout_maskColor, DEFAULT_MASK_COLOR);
             mIsMaskEnable = array.getBoolean(R.styleable.DrawerLayout_maskEnable, true);//default enable
+            //noinspection WrongConstant
+            mLayerPolicy = array.getInt(R.styleable.DrawerLayout_layerPolicy, LAYER_POLICY_OFF);
+            //noinspection WrongConstant
+            mDrawerOpacity = array.getInt(R.styleable.DrawerLayout_drawerOpacity, DRAWER_OPACITY_AUTO);
+            mFreezeContentRatio = array.getFloat(R.styleable.DrawerLayout_freezeContentRatio, 0);
+            mDragMinAlpha = array.getFloat(R.styleable.DrawerLayout_dragMinAlpha, 1f);
+            mDragMinScale = array.getFloat(R.styleable.DrawerLayout_dragMinScale, 1f);
+            mDragScalePivotX = array.getFloat(R.styleable.DrawerLayout_dragScalePivotX, 0.5f);
+            mContentParallax = array.getFloat(R.styleable.DrawerLayout_contentParallax, 0);
+            mDragElevation = array.getDimension(R.styleable.DrawerLayout_dragElevation, 0);
+            mIsDragElevationSet = array.hasValue(R.styleable.DrawerLayout_dragElevation);
+            final boolean adaptiveQuality = array.getBoolean(R.styleable.DrawerLayout_adaptiveQuality, false);
+            mIsLowLatencyDrag = array.getBoolean(R.styleable.DrawerLayout_lowLatencyDrag, false);
+            mDragPredictionMillis = Math.min(array.getInt(R.styleable.DrawerLayout_dragPredictionMillis, 0),
+                    MAX_DRAG_PREDICTION_MILLIS);
+            mIsSnapshotPerFrame = array.getBoolean(R.styleable.DrawerLayout_stateSnapshotPerFrame, false);
             array.recycle();
+            setAdaptiveQualityEnabled(adaptiveQuality);
         }
 
-        mMaskView = new View(context);
-        mMaskView.setOnClickListener(this);
-        mMaskView.setBackgroundColor(mMaskColor);
-        mMaskView.setVisibility(GONE);
-
         //Init ViewDragHelper
         mViewDragHelper = ViewDragHelper.create(this, 1.0f, new DragHelperCallBack());
-        //Only care about swipe from EDGE_RIGHT
-        mViewDragHelper.setEdgeTrackingEnabled(ViewDragHelper.EDGE_RIGHT);
+        //edges with a drawer are tracked after children are found in onFinishInflate()
+        if (mEdgeSize < 0) {
+            mEdgeSize = mViewDragHelper.getEdgeSize();
+        }
 
         //left bound of dragView default equals screen width
         mDragViewLeft = mScreenWidth = context.getResources().getDisplayMetrics().widthPixels;
+        mScreenHeight = context.getResources().getDisplayMetrics().heightPixels;
     }
 
     @Override
     protected void onFinishInflate() {
         super.onFinishInflate();
-        if (mDragViewResId != -1) {
-            mDragView = findViewById(mDragViewResId);
-//            ViewGroup.LayoutParams params = mDragView.getLayoutParams();
-//            params.width = mDragMaxWidth;
-//            params.height = getMeasuredHeight();
-//            mDragView.setLayoutParams(params);
+        for (int i = 0; i < mEdgeDragViews.length; i++) {
+            if (mEdgeDragViewResIds[i] != -1) {
+                mEdgeDragViews[i] = findViewById(mEdgeDragViewResIds[i]);
+            }
+        }
+        mDragView = mEdgeDragViews[edgeIndex(EDGE_RIGHT)];
+        if (mDragView == null && mDragLayoutResId == 0) {
+            //no right drawer,start with the first drawer declared
+            for (int i = 0; i < mEdgeDragViews.length; i++) {
+                if (mEdgeDragViews[i] != null) {
+                    mDragEdge = 1 << i;
+                    mDragView = mEdgeDragViews[i];
+                    mDragMaxWidth = mEdgeDragMaxSizes[i];
+                    mDragViewLeft = getClosedDragViewPosition();
+                    break;
+                }
+            }
         }
+        for (View drawer : mEdgeDragViews) {
+            if (drawer != null && drawer != mDragView) {
+                //only the active drawer takes part in measure,layout and drawing
+                drawer.setVisibility(INVISIBLE);
+            }
+        }
+        mViewDragHelper.setEdgeTrackingEnabled(getDrawerEdges());
         if (mContentViewResId != -1) {
             mContentView = findViewById(mContentViewResId);
         }
+        updateDragLayer();
+        initDragEffects();
+        //drawer starts closed,no need to measure and lay it out until it's opened
+        updateDragViewDetached();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mDragView == null && mDragLayoutResId != 0 && mIsPreInflateWhenIdle) {
+            Looper.myQueue().addIdleHandler(mPreInflateHandler);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        Looper.myQueue().removeIdleHandler(mPreInflateHandler);
+        if (mIsDragRatioDispatchPosted) {
+            mIsDragRatioDispatchPosted = false;
+            removeCallbacks(mDispatchDragRatio);
+        }
+        if (mIsSnapshotPublishPosted) {
+            mIsSnapshotPublishPosted = false;
+            removeCallbacks(mPublishStateSnapshot);
+            publishStateSnapshot();
+        }
+        if (mQualityTicker != null) {
+            mQualityTicker.stop();
+        }
+        unfreezeContent();
+        releaseContentSnapshot();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * inflate {@link DrawerLayout#mDragLayoutResId} when main thread is idle
+     */
+    private final MessageQueue.IdleHandler mPreInflateHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            ensureDragView();
+            return false;//only once
+        }
+    };
+
+    /**
+     * inflate {@link DrawerLayout#mDragView} from {@link DrawerLayout#mDragLayoutResId} if it's not there,
+     * then measure and lay it out right now,so the first frame shows its content
+     *
+     * @return false if there is no {@link DrawerLayout#mDragView} and nothing to inflate
+     */
+    private boolean ensureDragView() {
+        if (mDragView != null) {
+            attachDragView();
+            return true;
+        }
+        //only the right drawer can be inflated lazily
+        if (mDragLayoutResId == 0 || mDragEdge != EDGE_RIGHT) {
+            return false;
+        }
+        Looper.myQueue().removeIdleHandler(mPreInflateHandler);
+        mDragView = LayoutInflater.from(getContext()).inflate(mDragLayoutResId, this, false);
+        mEdgeDragViews[edgeIndex(EDGE_RIGHT)] = mDragView;
+        addView(mDragView);//add at last,so it's on the top of content view
+        updateDragLayer();
+        initDragEffects();
+        if (mDragViewInflatedListener != null) {
+            mDragViewInflatedListener.onDragViewInflated(mDragView);
+        }
+        layoutDragViewNow();
+        return true;
+    }
+
+    /**
+     * measure and lay out {@link DrawerLayout#mDragView} out of layout pass if it requested layout,
+     * so it's ready before the next frame
+     */
+    private void layoutDragViewNow() {
+        if (getWidth() > 0 && mDragView.isLayoutRequested()) {
+            final int dragViewWidthSpec = makeDragViewWidthSpec(mLastWidthMeasureSpec);
+            final int dragViewHeightSpec = makeDragViewHeightSpec(mLastHeightMeasureSpec);
+            mDragView.measure(dragViewWidthSpec, dragViewHeightSpec);
+            mDragMeasureKey = measureKey(dragViewWidthSpec, dragViewHeightSpec);
+            layoutDragView(getWidth(), getHeight());
+            updateDragPivot();
+        }
+    }
+
+    /**
+     * prepare {@link DrawerLayout#mDragView} when finger is down at the edge and drawer is closed,
+     * so the first drag frame doesn't pay for inflating,laying out and rendering it
+     */
+    private void prewarmDragView() {
+        if (!ensureDragView()) {
+            return;
+        }
+        layoutDragViewNow();
+        mIsPrewarming = true;
+        updateDragLayer();
+        if (mIsDragLayerPromoted && getWindowToken() != null) {
+            //render dragView into its layer now,it's off screen so won't be drawn otherwise
+            mDragView.buildLayer();
+        }
+        removeCallbacks(mCancelPrewarm);
+        postDelayed(mCancelPrewarm, PREWARM_TIMEOUT);
+    }
+
+    private void cancelPrewarm() {
+        if (mIsPrewarming) {
+            mIsPrewarming = false;
+            removeCallbacks(mCancelPrewarm);
+            updateDragLayer();
+            updateDragViewDetached();
+        }
+    }
+
+    /**
+     * detach {@link DrawerLayout#mDragView} if it's fully closed and not moving:
+     * it becomes INVISIBLE,so it's not drawn and skips invalidation,
+     * and it's left out of {@link DrawerLayout#onMeasure(int, int)} and
+     * {@link DrawerLayout#onLayout(boolean, int, int, int, int)}
+     */
+    private void updateDragViewDetached() {
+        if (mDragView == null || mIsDragViewDetached || !mIsDetachWhenClosed) {
+            return;
+        }
+        if (mDrawerState == STATE_IDLE && !mIsPrewarming && mDragViewLeft >= getDragExtent()) {
+            detachDragView();
+        }
+    }
+
+    private void detachDragView() {
+        mIsDragViewDetached = true;
+        //INVISIBLE rather than GONE,changing to GONE and back requests layout
+        mDragView.setVisibility(INVISIBLE);
+        if (mDragViewDetachListener != null) {
+            mDragViewDetachListener.onDragViewDetached(mDragView);
+        }
+    }
 
-        if (mMaskView != null) {
-            addView(mMaskView);
+    /**
+     * bring detached {@link DrawerLayout#mDragView} back,measure and lay it out right now if
+     * it requested layout while detached,so there is no frame delay
+     */
+    private void attachDragView() {
+        if (!mIsDragViewDetached) {
+            return;
+        }
+        mIsDragViewDetached = false;
+        mDragView.setVisibility(VISIBLE);
+        layoutDragViewNow();
+        if (mDragViewDetachListener != null) {
+            mDragViewDetachListener.onDragViewAttached(mDragView);
         }
     }
 
+    private final Runnable mCancelPrewarm = new Runnable() {
+        @Override
+        public void run() {
+            cancelPrewarm();
+        }
+    };
+
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
 //        Log.i(TAG, "onMeasure happened!");
 //        measureChildren(widthMeasureSpec, heightMeasureSpec);//ignore this,measure children separately
+        if (mMetrics != null) {
+            mMetrics.onMeasure();
+        }
 
         //get the extra width and height with spec
         int maxWidth = MeasureSpec.getSize(widthMeasureSpec);
         int maxHeight = MeasureSpec.getSize(heightMeasureSpec);
 
-        final int childCount = getChildCount() - (mMaskView == null ? 0 : 1);//except maskView
+        //TODO if there are padding or margin values in this ViewGroup,may has some problems
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
 
-        if (childCount != 2) {//only have 2 children except maskView
-            throw new IllegalArgumentException("Drawer layout must have exactly 2 children!");
-        }
+        //dragView may be inflated lazily,it's null until then
+        final int dragViewWidthSpec = mDragView == null ? 0 : makeDragViewWidthSpec(widthMeasureSpec);
+        final int dragViewHeightSpec = mDragView == null ? 0 : makeDragViewHeightSpec(heightMeasureSpec);
 
-        if (mDragMaxWidth > mScreenWidth) {//dragMaxWidth can't be greater than screen width
-            throw new IllegalArgumentException("Drawer width can't be greater than screen width!");
+        if (getChildCount() != mValidatedChildCount || mDragMaxWidth != mValidatedDragWidth
+                || mContentView.getLayoutParams() != mValidatedContentParams) {
+            validateChildren();
         }
 
-
-        //TODO if there are padding or margin values in this ViewGroup,may has some problems
-
-        /**
-         handle {@link mDragView} with layoutParams.
-         NOTE:if {@link mDragView} has exactly width,{@link mDragMaxWidth} is not available
-         */
-        ViewGroup.LayoutParams dragParams = mDragView.getLayoutParams();
-        int mDragViewWidthSpec;
-        int mMaskViewWidthSpec;
-        if (dragParams.width == LayoutParams.WRAP_CONTENT) {
-            mDragViewWidthSpec = MeasureSpec.makeMeasureSpec(mDragMaxWidth, MeasureSpec.AT_MOST);
-            mMaskViewWidthSpec = MeasureSpec.makeMeasureSpec(maxWidth - mDragMaxWidth, MeasureSpec.AT_MOST);
-        } else if (dragParams.width == LayoutParams.MATCH_PARENT) {
-            mDragViewWidthSpec = MeasureSpec.makeMeasureSpec(mDragMaxWidth, MeasureSpec.EXACTLY);
-            mMaskViewWidthSpec = MeasureSpec.makeMeasureSpec(maxWidth - mDragMaxWidth, MeasureSpec.EXACTLY);
-        } else {
-            mDragMaxWidth = dragParams.width;
-            mDragViewWidthSpec = MeasureSpec.makeMeasureSpec(dragParams.width, MeasureSpec.EXACTLY);
-            mMaskViewWidthSpec = MeasureSpec.makeMeasureSpec(maxWidth - dragParams.width, MeasureSpec.EXACTLY);
+        //measure {@link mDragView},skip it if nothing changed since last pass or it's detached
+        if (mDragView != null && !mIsDragViewDetached) {
+            final long dragMeasureKey = measureKey(dragViewWidthSpec, dragViewHeightSpec);
+            if (dragMeasureKey != mDragMeasureKey || mDragView.isLayoutRequested()) {
+                mDragView.measure(dragViewWidthSpec, dragViewHeightSpec);
+                mDragMeasureKey = dragMeasureKey;
+            }
         }
-        //measure {@link mDragView}
-        mDragView.measure(mDragViewWidthSpec, heightMeasureSpec);
 
         /**
          * handle {@link mContentView}
          * NOTE: the height and width must be MATCH_PARENT
          */
+        final long contentMeasureKey = measureKey(widthMeasureSpec, heightMeasureSpec);
+        if (contentMeasureKey != mContentMeasureKey || mContentView.isLayoutRequested()) {
+            mContentView.measure(widthMeasureSpec, heightMeasureSpec);
+            mContentMeasureKey = contentMeasureKey;
+        }
+
+        setMeasuredDimension(maxWidth, maxHeight);
+    }
+
+    private int makeDragViewWidthSpec(int widthMeasureSpec) {
+        return isHorizontalDrag() ? makeDragViewSizeSpec() : widthMeasureSpec;
+    }
+
+    private int makeDragViewHeightSpec(int heightMeasureSpec) {
+        return isHorizontalDrag() ? heightMeasureSpec : makeDragViewSizeSpec();
+    }
+
+    /**
+     * handle {@link DrawerLayout#mDragView} with layoutParams.
+     * NOTE:if {@link DrawerLayout#mDragView} has exactly width(height for top/bottom drawer),
+     * {@link DrawerLayout#mDragMaxWidth} is not available
+     *
+     * @return measure spec of {@link DrawerLayout#mDragView} along the drag direction
+     */
+    private int makeDragViewSizeSpec() {
+        final int size = getDragViewSizeParam();
+        if (size == LayoutParams.WRAP_CONTENT) {
+            return MeasureSpec.makeMeasureSpec(mDragMaxWidth, MeasureSpec.AT_MOST);
+        } else if (size == LayoutParams.MATCH_PARENT) {
+            return MeasureSpec.makeMeasureSpec(mDragMaxWidth, MeasureSpec.EXACTLY);
+        } else {
+            mDragMaxWidth = size;
+            return MeasureSpec.makeMeasureSpec(size, MeasureSpec.EXACTLY);
+        }
+    }
+
+    /**
+     * @return layout width of {@link DrawerLayout#mDragView},or height for top/bottom drawer
+     */
+    private int getDragViewSizeParam() {
+        final ViewGroup.LayoutParams dragParams = mDragView.getLayoutParams();
+        return isHorizontalDrag() ? dragParams.width : dragParams.height;
+    }
+
+    /**
+     * check the constraints of children,only called when children or attributes changed
+     */
+    private void validateChildren() {
+        final int childCount = getChildCount();
+
+        //content view and one child for each drawer,a lazy drawer isn't there before inflated
+        int expectedCount = 1;
+        for (View drawer : mEdgeDragViews) {
+            if (drawer != null) {
+                expectedCount++;
+            }
+        }
+        if (childCount != expectedCount || expectedCount == 1 && mDragLayoutResId == 0) {
+            throw new IllegalArgumentException("Drawer layout must have a content view and one child for each drawer!");
+        }
+
+        if (mDragMaxWidth > getScreenSize()) {//dragMaxWidth can't be greater than screen width
+            throw new IllegalArgumentException("Drawer width can't be greater than screen width!");
+        }
+
         LayoutParams contentParams = mContentView.getLayoutParams();
-        mContentView.measure(widthMeasureSpec, heightMeasureSpec);
         if (contentParams.width != LayoutParams.MATCH_PARENT && contentParams.height == LayoutParams.MATCH_PARENT) {
             throw new IllegalArgumentException("Content View width/height must be MATCH_PARENT");
         }
 
-        /**
-         * handle {@link mMaskView}
-         */
-        mMaskView.measure(mMaskViewWidthSpec, heightMeasureSpec);
+        mValidatedChildCount = childCount;
+        mValidatedDragWidth = mDragMaxWidth;
+        mValidatedContentParams = contentParams;
+    }
 
-        setMeasuredDimension(maxWidth, maxHeight);
+    /**
+     * pack width and height measure spec into one value
+     */
+    private static long measureKey(int widthMeasureSpec, int heightMeasureSpec) {
+        return ((long) widthMeasureSpec << 32) | (heightMeasureSpec & 0xffffffffL);
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        if (mMetrics != null) {
+            mMetrics.onLayout();
+        }
 
         mContentView.layout(0, 0, r, b);
-        mDragView.layout(mDragViewLeft, 0, mDragViewLeft + mDragMaxWidth, b);
-        mMaskView.layout(0, 0, mDragViewLeft, b);
+        if (mDragView == null || mIsDragViewDetached) {
+            mHasPendingJump = false;
+            return;
+        }
+        if (mHasPendingJump) {
+            //restored or jumped position goes straight into this layout,no animation
+            final int extent = isHorizontalDrag() ? r - l : b - t;
+            mDragViewLeft = mIsPendingJumpOpen ? extent - mDragMaxWidth : extent;
+        }
+        layoutDragView(r, b);
+        updateDragPivot();
+        if (mHasPendingJump) {
+            mHasPendingJump = false;
+            onDragViewPositionChanged(mDragViewLeft);
+            onDrawerIdle();
+        } else if (mStateSnapshot != null) {
+            publishStateSnapshot();//dragMaxWidth may be changed by measure
+        }
 //        Log.i(TAG, "onLayout->mDragViewLeft->" + mDragViewLeft);
-        bringChildToFront(mDragView);//force bring dragView to front in case the wrong z value.
+        if (getChildAt(getChildCount() - 1) != mDragView) {
+            //force bring dragView to front in case the wrong z value,
+            //bringChildToFront() requests another layout,so only do it when the order is wrong
+            bringChildToFront(mDragView);
+        }
+    }
+
+    /**
+     * lay out {@link DrawerLayout#mDragView} at {@link DrawerLayout#mDragViewLeft} along its edge
+     */
+    private void layoutDragView(int r, int b) {
+        final int position = toDragViewPosition(mDragViewLeft);
+        if (isHorizontalDrag()) {
+            mDragView.layout(position, 0, position + mDragMaxWidth, b);
+        } else {
+            mDragView.layout(0, position, r, position + mDragMaxWidth);
+        }
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        //record the whole stream,both intercepted and passed through events affect ViewDragHelper
+        if (mTouchTrace != null) {
+            mTouchTrace.recordEvent(ev);
+        }
+        if (!mIsLowLatencyDrag) {
+            return super.dispatchTouchEvent(ev);
+        }
+        final int action = MotionEventCompat.getActionMasked(ev);
+        if (action == MotionEvent.ACTION_DOWN) {
+            mIsUnbufferedDispatchRequested = false;
+            mLastSampleTime = -1;
+        }
+        updateDragPrediction(ev);
+        final boolean handled = super.dispatchTouchEvent(ev);
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            mDragPrediction = 0;
+        } else if (!mIsUnbufferedDispatchRequested && mViewDragHelper.getViewDragState() == STATE_DRAGGING) {
+            //moves of the rest of this drag are delivered as they come instead of batched to vsync
+            mIsUnbufferedDispatchRequested = true;
+            requestUnbufferedDispatchCompat(ev);
+        }
+        return handled;
+    }
+
+    /**
+     * predict where the finger will be {@link DrawerLayout#mDragPredictionMillis} later,
+     * from the newest sample and the oldest historical sample of ev,or the last sample of previous ev
+     */
+    private void updateDragPrediction(MotionEvent ev) {
+        final int historySize = ev.getHistorySize();
+        final long time = ev.getEventTime();
+        long fromTime = mLastSampleTime;
+        float fromX = mLastSampleX;
+        float fromY = mLastSampleY;
+        if (historySize > 0) {
+            fromTime = ev.getHistoricalEventTime(0);
+            fromX = ev.getHistoricalX(0);
+            fromY = ev.getHistoricalY(0);
+        }
+        mDragPrediction = 0;
+        if (mDragPredictionMillis > 0 && fromTime >= 0 && time > fromTime
+                && time - fromTime <= MAX_PREDICTION_SAMPLE_AGE) {
+            final float distance = isHorizontalDrag() ? ev.getX() - fromX : ev.getY() - fromY;
+            mDragPrediction = Math.round(distance * mDragPredictionMillis / (time - fromTime));
+        }
+        mLastSampleTime = time;
+        mLastSampleX = ev.getX();
+        mLastSampleY = ev.getY();
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void requestUnbufferedDispatchCompat(MotionEvent ev) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            requestUnbufferedDispatch(ev);
+        }
     }
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
         final int action = MotionEventCompat.getActionMasked(ev);
+        if (action == MotionEvent.ACTION_DOWN) {
+            mTouchClass = classifyTouch(ev.getX(), ev.getY());
+        }
+        if (mTouchClass == TOUCH_PASS_THROUGH) {
+            //drawer can't be involved until next ACTION_DOWN,skip ViewDragHelper completely
+            return false;
+        }
+
         if (action == MotionEvent.ACTION_CANCEL || action == MotionEvent.ACTION_UP) {
             mViewDragHelper.cancel();
+            cancelPrewarm();
             return false;
         }
 
@@ -198,24 +784,110 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
             case MotionEvent.ACTION_DOWN:
                 mInitMotionX = moveX;
                 mInitMotionY = moveY;
+                if (isSettleEngineRunning() && getTouchPosition(moveX, moveY) >= mDragViewLeft) {
+                    //grab the settling drawer,it's captured in onTouchEvent
+                    return true;
+                }
+                mIsMaskTouched = isMaskUnder(moveX, moveY);
+                if (mIsMaskTouched) {
+                    //let ViewDragHelper record the down event,then take the whole gesture
+                    mViewDragHelper.shouldInterceptTouchEvent(ev);
+                    return true;
+                }
+                if (mTouchClass == TOUCH_EDGE && activateDrawer(mTouchEdge)) {
+                    prewarmDragView();
+                }
                 break;
             case MotionEvent.ACTION_MOVE:
-                float adx = Math.abs(moveX - mInitMotionX);
-                float ady = Math.abs(moveY - mInitMotionY);
+                final boolean horizontal = isHorizontalDrag();
+                //distance along and across the drag direction
+                float along = Math.abs(horizontal ? moveX - mInitMotionX : moveY - mInitMotionY);
+                float across = Math.abs(horizontal ? moveY - mInitMotionY : moveX - mInitMotionX);
                 int touchSlop = mViewDragHelper.getTouchSlop();
-                //we only care about horizontal scroll
-                if (ady > adx && adx > touchSlop) {
+                //we only care about scroll along the drag direction
+                if (across > along && along > touchSlop) {
                     mViewDragHelper.cancel();
                     return false;
                 }
+                if (mTouchClass == TOUCH_EDGE) {
+                    if (mViewDragHelper.shouldInterceptTouchEvent(ev)) {
+                        return true;
+                    }
+                    //edge zone may be wider than ViewDragHelper's,start the edge drag by ourselves
+                    if (getTouchPosition(mInitMotionX, mInitMotionY) - getTouchPosition(moveX, moveY) > touchSlop
+                            && along > across
+                            && mViewDragHelper.getViewDragState() == ViewDragHelper.STATE_IDLE
+                            && ensureDragView()) {
+                        mViewDragHelper.captureChildView(mDragView, MotionEventCompat.getPointerId(ev, 0));
+                        return true;
+                    }
+                    return false;
+                }
                 break;
         }
 
         return mViewDragHelper.shouldInterceptTouchEvent(ev);
     }
 
+    /**
+     * classify a gesture once at ACTION_DOWN
+     *
+     * @param x x of ACTION_DOWN
+     * @param y y of ACTION_DOWN
+     * @return {@link DrawerLayout#TOUCH_PASS_THROUGH},{@link DrawerLayout#TOUCH_EDGE}
+     * or {@link DrawerLayout#TOUCH_DRAWER}
+     */
+    private int classifyTouch(float x, float y) {
+        if (mDrawerState != STATE_IDLE || mDragViewLeft < getDragExtent()) {
+            return TOUCH_DRAWER;
+        }
+        for (int i = 0; i < mEdgeDragViews.length; i++) {
+            if (hasDrawer(i) && isInEdgeZone(1 << i, x, y)) {
+                mTouchEdge = 1 << i;
+                return TOUCH_EDGE;
+            }
+        }
+        return TOUCH_PASS_THROUGH;
+    }
+
+    private boolean isInEdgeZone(int edge, float x, float y) {
+        switch (edge) {
+            case EDGE_LEFT:
+                return x < mEdgeSize;
+            case EDGE_TOP:
+                return y < mEdgeSize;
+            case EDGE_BOTTOM:
+                return y >= getHeight() - mEdgeSize;
+            default:
+                return x >= getWidth() - mEdgeSize;
+        }
+    }
+
+    /**
+     * @return position of a touch along the drag direction,in the same coordinate
+     * as {@link DrawerLayout#mDragViewLeft},it's on dragView if it's not less than mDragViewLeft
+     */
+    private float getTouchPosition(float x, float y) {
+        switch (mDragEdge) {
+            case EDGE_LEFT:
+                return getWidth() - x;
+            case EDGE_TOP:
+                return getHeight() - y;
+            case EDGE_BOTTOM:
+                return y;
+            default:
+                return x;
+        }
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        if (MotionEventCompat.getActionMasked(event) == MotionEvent.ACTION_DOWN) {
+            mTouchClass = classifyTouch(event.getX(), event.getY());
+        }
+        if (mTouchClass == TOUCH_PASS_THROUGH) {
+            return false;
+        }
         //let ViewDragHelper to handle touch event
         mViewDragHelper.processTouchEvent(event);
         float moveX = event.getX();
@@ -224,17 +896,35 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
             case MotionEvent.ACTION_DOWN:
                 mInitMotionX = moveX;
                 mInitMotionY = moveY;
+                if (isSettleEngineRunning() && getTouchPosition(moveX, moveY) >= mDragViewLeft) {
+                    //stop settling where it is and continue with dragging
+                    mSettleEngine.cancel();
+                    mViewDragHelper.captureChildView(mDragView, MotionEventCompat.getPointerId(event, 0));
+                    break;
+                }
+                mIsMaskTouched = isMaskUnder(moveX, moveY);
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                mIsMaskTouched = false;
+                mReleaseView = null;
                 break;
             case MotionEvent.ACTION_UP:
-                //set open or close dragView according to mDragViewLeft when we ACTION_UP
-                if (mDragViewLeft > (getWidth() - mDragMaxWidth / 2)) {
-                    closeDrawer();
-                } else {
-                    if (mReleaseView != null && mReleaseView == mDragView) {
-                        mReleaseView = null;
-                        Log.i(TAG, "onTouchEvent openDrawer");
-                        openDrawer();
+                //click on the mask outside of dragView,close it
+                if (mIsMaskTouched) {
+                    mIsMaskTouched = false;
+                    if (isMaskUnder(moveX, moveY)) {
+                        closeDrawer();
                     }
+                    break;
+                }
+                if (mReleaseView != null && mReleaseView == mDragView) {
+                    //onViewReleased() already settles toward the fling direction with its velocity
+                    mReleaseView = null;
+                    break;
+                }
+                //no drag released,close dragView according to mDragViewLeft when we ACTION_UP
+                if (mDragViewLeft > (getDragExtent() - mDragMaxWidth / 2)) {
+                    closeDrawer();
                 }
                 break;
         }
@@ -244,6 +934,33 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
 
     @Override
     public void computeScroll() {
+        if (mWidthAnimation.isRunning()) {//width animation and settle never run together
+            stepWidthAnimation();
+            return;
+        }
+        if (isSettleEngineRunning()) {
+            final boolean running = mSettleEngine.update(AnimationUtils.currentAnimationTimeMillis());
+            final int maxLeft = getDragExtent();
+            final int minLeft = maxLeft - mDragMaxWidth;
+            int left = Math.round(mSettleEngine.getPosition());
+            if (left < minLeft || left > maxLeft) {
+                //drawer can't move out of its range,stop there if it's where we settle to
+                left = Math.min(Math.max(left, minLeft), maxLeft);
+                if (left == Math.round(mSettleEngine.getTarget())) {
+                    mSettleEngine.cancel();
+                }
+            }
+            if (left != mDragViewLeft) {
+                offsetDragViewTo(left);
+                onDragViewPositionChanged(left);
+            }
+            if (running && mSettleEngine.isRunning()) {
+                ViewCompat.postInvalidateOnAnimation(this);
+            } else {
+                updateDrawerState();
+            }
+            return;
+        }
         /**
          * viewDragHelper response {@link android.widget.Scroller Scroller}
          */
@@ -252,119 +969,497 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
         }
     }
 
-    @Override
-    public void onClick(View v) {
-        if (v == mMaskView) {
-            if (isDrawerOpen()) {
-                closeDrawer();
-            }
-        }
+    /**
+     * @return true if next settle is done by {@link DrawerLayout#mSettleEngine}
+     */
+    private boolean isSettleEngineUsed() {
+        return mSettleEngine != null && mQualityLevel < QUALITY_SIMPLE_SETTLE;
     }
 
+    private boolean isSettleEngineRunning() {
+        return mSettleEngine != null && mSettleEngine.isRunning();
+    }
 
-    private class DragHelperCallBack extends ViewDragHelper.Callback {
-
-        @Override
-        public boolean tryCaptureView(View child, int pointerId) {
-            return mDragView == child;
+    /**
+     * settle {@link DrawerLayout#mDragView} with {@link DrawerLayout#mSettleEngine},
+     * a running settle is retargeted with its velocity kept
+     *
+     * @param targetLeft final left bound of dragView
+     * @param velocity   start velocity if it's not running
+     */
+    private void startSettle(int targetLeft, float velocity) {
+        if (mWidthAnimation.isRunning()) {//settle from current width
+            finishWidthAnimation(mWidthAnimation.getValue());
         }
+        final boolean running = mSettleEngine.isRunning();
+        mSettleEngine.start(running ? mSettleEngine.getPosition() : mDragViewLeft,
+                running ? mSettleEngine.getVelocity() : velocity,
+                targetLeft, AnimationUtils.currentAnimationTimeMillis());
+        updateDrawerState();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
 
-        @Override
-        public void onEdgeDragStarted(int edgeFlags, int pointerId) {
-            //only handle swipe right to left at right edge
-            if (edgeFlags == ViewDragHelper.EDGE_RIGHT) {
-                Log.i(TAG, "onEdgeDragStarted:Left edge drag start");
-                mMaskView.setVisibility(VISIBLE);
-                if (!mIsMaskEnable) {//when disable mask animation,we need alpha==0 so it can be triggered
-                    mMaskView.setAlpha(0);
-                }
-                mViewDragHelper.captureChildView(mDragView, pointerId);
-            }
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (BuildConfig.DEBUG) {
+            mDrawnPixels = 0;
         }
+        if (mIsContentFrozen) {
+            //content view is INVISIBLE,so drawChild() isn't called for it
+            drawContentSnapshot(canvas);
+        }
+        super.dispatchDraw(canvas);
+        if (BuildConfig.DEBUG) {
+            final long area = (long) getWidth() * getHeight();
+            mLastFrameOverdraw = area == 0 ? 0 : (float) mDrawnPixels / area;
+        }
+    }
+
+    /**
+     * it used to close drawer when the mask view was clicked,the mask is drawn on canvas now
+     * and a tap on it is handled in {@link DrawerLayout#onTouchEvent(MotionEvent)},so it does nothing
+     *
+     * @deprecated kept for compatibility,it will be removed in a later release
+     */
+    @Deprecated
+    @Override
+    public void onClick(View v) {
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (child != mContentView) {
+            if (BuildConfig.DEBUG && child == mDragView && child.getVisibility() == VISIBLE) {
+                mDrawnPixels += (long) Math.max(0, Math.min(getWidth(), child.getRight()) - Math.max(0, child.getLeft()))
+                        * Math.max(0, Math.min(getHeight(), child.getBottom()) - Math.max(0, child.getTop()));
+            }
+            return super.drawChild(canvas, child, drawingTime);
+        }
+        //content under an opaque dragView can't be seen,clip it away
+        final boolean result;
+        mIsContentClipped = isDragViewCovering();
+        if (mIsContentClipped) {
+            final int saveCount = canvas.save();
+            canvas.clipRect(getUncoveredRect());
+            result = super.drawChild(canvas, child, drawingTime);
+            canvas.restoreToCount(saveCount);
+        } else {
+            result = super.drawChild(canvas, child, drawingTime);
+        }
+        if (BuildConfig.DEBUG) {
+            mDrawnPixels += mIsContentClipped ? (long) mUncoveredRect.width() * mUncoveredRect.height()
+                    : (long) getWidth() * getHeight();
+        }
+        //draw the mask right after content view,so it's under dragView
+        if (isMaskDrawn()) {
+            drawMask(canvas);
+        }
+        return result;
+    }
+
+    /**
+     * draw {@link DrawerLayout#mContentSnapshot} and mask instead of frozen content view
+     */
+    private void drawContentSnapshot(Canvas canvas) {
+        mIsContentClipped = isDragViewCovering();
+        final int saveCount = canvas.save();
+        if (mIsContentClipped) {
+            canvas.clipRect(getUncoveredRect());
+        }
+        //follow parallax translation of content view
+        canvas.drawBitmap(mContentSnapshot, mContentView.getTranslationX(), mContentView.getTranslationY(), null);
+        canvas.restoreToCount(saveCount);
+        if (BuildConfig.DEBUG) {
+            mDrawnPixels += mIsContentClipped ? (long) mUncoveredRect.width() * mUncoveredRect.height()
+                    : (long) getWidth() * getHeight();
+        }
+        if (isMaskDrawn()) {
+            drawMask(canvas);
+        }
+    }
+
+    /**
+     * mask is drawn whenever drawer is shown,when quality is reduced its alpha is held during motion
+     */
+    private boolean isMaskDrawn() {
+        return mIsMaskEnable && mDragRatio > 0;
+    }
+
+    /**
+     * @return true if {@link DrawerLayout#mDragView} is shown and hides everything under it
+     */
+    private boolean isDragViewCovering() {
+        if (mDragView == null || mIsDragViewDetached || mDragViewLeft >= getDragExtent()) {
+            return false;
+        }
+        switch (mDrawerOpacity) {
+            case DRAWER_OPACITY_OPAQUE:
+                return true;
+            case DRAWER_OPACITY_TRANSLUCENT:
+                return false;
+            default:
+                final Drawable background = mDragView.getBackground();
+                //alpha,scale or translation would leave some content under dragView visible
+                return background != null && background.getOpacity() == PixelFormat.OPAQUE
+                        && mDragView.getAlpha() == 1f
+                        && mDragView.getScaleX() == 1f
+                        && mDragView.getScaleY() == 1f
+                        && mDragView.getTranslationX() == 0f
+                        && mDragView.getTranslationY() == 0f
+                        && isDragViewAtEdge();
+        }
+    }
+
+    /**
+     * @return true if {@link DrawerLayout#mDragView} reaches its edge,so there is no gap to see through
+     */
+    private boolean isDragViewAtEdge() {
+        switch (mDragEdge) {
+            case EDGE_LEFT:
+                return mDragView.getLeft() <= 0;
+            case EDGE_TOP:
+                return mDragView.getTop() <= 0;
+            case EDGE_BOTTOM:
+                return mDragView.getBottom() >= getHeight();
+            default:
+                return mDragView.getRight() >= getWidth();
+        }
+    }
+
+    /**
+     * @return the part of this layout not covered by {@link DrawerLayout#mDragView},
+     * where content can be seen and mask is drawn
+     */
+    private Rect getUncoveredRect() {
+        final int visible = getDragExtent() - mDragViewLeft;
+        switch (mDragEdge) {
+            case EDGE_LEFT:
+                mUncoveredRect.set(visible, 0, getWidth(), getHeight());
+                break;
+            case EDGE_TOP:
+                mUncoveredRect.set(0, visible, getWidth(), getHeight());
+                break;
+            case EDGE_BOTTOM:
+                mUncoveredRect.set(0, 0, getWidth(), mDragViewLeft);
+                break;
+            default:
+                mUncoveredRect.set(0, 0, mDragViewLeft, getHeight());
+                break;
+        }
+        return mUncoveredRect;
+    }
+
+    /**
+     * draw mask color with alpha of {@link DrawerLayout#mDragRatio} outside of
+     * {@link DrawerLayout#mDragView},instead of an extra mask child view
+     */
+    private void drawMask(Canvas canvas) {
+        final float ratio;
+        if (mQualityLevel >= QUALITY_NO_EFFECTS && mDrawerState != STATE_IDLE) {
+            if (mHeldMaskRatio < 0) {
+                //hold what is shown now,or the opened alpha when drawer comes in from closed
+                mHeldMaskRatio = mDragRatio > 0 ? Math.min(mDragRatio, 1f) : 1f;
+            }
+            ratio = mHeldMaskRatio;
+        } else {
+            mHeldMaskRatio = -1;
+            ratio = Math.min(mDragRatio, 1f);
+        }
+        final int baseAlpha = (mMaskColor & 0xff000000) >>> 24;
+        final int alpha = (int) (baseAlpha * ratio);
+        mMaskPaint.setColor(alpha << 24 | (mMaskColor & 0xffffff));
+        final Rect mask = getUncoveredRect();
+        canvas.drawRect(mask, mMaskPaint);
+        if (BuildConfig.DEBUG) {
+            mDrawnPixels += (long) mask.width() * mask.height();
+        }
+    }
+
+    /**
+     * is the position at (x,y) on the mask(outside of {@link DrawerLayout#mDragView}) when drawer opened
+     */
+    private boolean isMaskUnder(float x, float y) {
+        return isDrawerOpen() && getTouchPosition(x, y) < mDragViewLeft;
+    }
+
+
+    private class DragHelperCallBack extends ViewDragHelper.Callback {
+
+        @Override
+        public boolean tryCaptureView(View child, int pointerId) {
+            return mDragView == child;
+        }
+
+        @Override
+        public void onEdgeDragStarted(int edgeFlags, int pointerId) {
+            //prefer the active drawer if several edges are touched at a corner
+            final int edge = (edgeFlags & mDragEdge) != 0 ? mDragEdge : Integer.lowestOneBit(edgeFlags);
+            Log.i(TAG, "onEdgeDragStarted:edge " + edge + " drag start");
+            if (activateDrawer(edge) && ensureDragView()) {
+                mViewDragHelper.captureChildView(mDragView, pointerId);
+            }
+        }
+
 
-
         @Override
         public int clampViewPositionHorizontal(View child, int left, int dx) {
             if (child == mDragView) {
-//                Log.i(TAG, "clampViewPositionHorizontal");
-                float rectLeft = getWidth() - mDragMaxWidth;
-                float rectRight = getWidth();
-                //mDragView's drag bounds,left range must in rectLeft < left < rectRight
-                return (int) Math.min(Math.max(left, rectLeft), rectRight);
+                return isHorizontalDrag() ? clampDragViewPosition(left) : child.getLeft();
             } else {
                 return left;
             }
         }
 
+        @Override
+        public int clampViewPositionVertical(View child, int top, int dy) {
+            if (child == mDragView) {
+                return isHorizontalDrag() ? child.getTop() : clampDragViewPosition(top);
+            } else {
+                return top;
+            }
+        }
+
+        /**
+         * mDragView's drag bounds,it can't move out of fully closed and fully opened position
+         */
+        private int clampDragViewPosition(int position) {
+            if (mAppliedDragPrediction == 0 && mDragPrediction == 0) {
+                return clampToDragRange(position);
+            }
+            //ViewDragHelper moves on from where dragView is,take off the last prediction first
+            final int actual = clampToDragRange(position - mAppliedDragPrediction);
+            final int predicted = clampToDragRange(actual + mDragPrediction);
+            mAppliedDragPrediction = predicted - actual;
+            return predicted;
+        }
+
+        private int clampToDragRange(int position) {
+            final int closed = toDragViewPosition(getDragExtent());
+            final int opened = toDragViewPosition(getDragExtent() - mDragMaxWidth);
+            return Math.min(Math.max(position, Math.min(closed, opened)), Math.max(closed, opened));
+        }
+
         @Override
         public int getViewHorizontalDragRange(View child) {
-            return mDragMaxWidth;
+            return isHorizontalDrag() ? mDragMaxWidth : 0;
+        }
+
+        @Override
+        public int getViewVerticalDragRange(View child) {
+            return isHorizontalDrag() ? 0 : mDragMaxWidth;
         }
 
         @Override
         public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
 
             if (changedView == mDragView) {
-                mDragViewLeft = left;
-                mDragRatio = (float) (getWidth() - left) / mDragMaxWidth;
-                if (null != mDragRatioListener) {
-                    mDragRatioListener.onDragRatioChange(mDragRatio, mDragView);
-                }
-
-                if (mIsMaskEnable) {
-                    if (mDragRatio == 0) {
-                        mMaskView.setVisibility(GONE);
-                    } else if (mDragRatio == 1) {
-                        mMaskView.setVisibility(VISIBLE);
-                    }
-                    mMaskView.setAlpha(mDragRatio);
-                }
 //                Log.i(TAG, "onViewPositionChanged left->" + left);
 //                Log.i(TAG, "onViewPositionChanged width->" + getWidth());
 //                Log.i(TAG, "onViewPositionChanged mDragMaxWidth->" + mDragMaxWidth);
-//                Log.i(TAG, "onViewPositionChanged ratio->" + mDragRatio);
-                requestLayout();
+                onDragViewPositionChanged(toDragViewPosition(isHorizontalDrag() ? left : top));
             }
         }
 
         @Override
         public void onViewReleased(View releasedChild, float xvel, float yvel) {
             mReleaseView = releasedChild;
+            //settle from where dragView is,prediction is only for following the finger
+            mAppliedDragPrediction = 0;
             if (releasedChild == mDragView) {
                 Log.i(TAG, "onViewReleased");
-                //  horizontal x velocity:  left -> right  >0
-                //  horizontal x velocity:  right -> left  <0
-                if (xvel < 0 || (xvel == 0 && mDragRatio > 0.5f)) {
-                    mViewDragHelper.settleCapturedViewAt(getWidth() - mDragMaxWidth, 0);
+                //  velocity along the drag direction,<0 means opening
+                //  horizontal x velocity:  right -> left  <0 for right drawer
+                final float velocity = isMirroredDrag()
+                        ? -(isHorizontalDrag() ? xvel : yvel) : (isHorizontalDrag() ? xvel : yvel);
+                final int targetLeft;
+                if (velocity < 0 || (velocity == 0 && mDragRatio > 0.5f)) {
+                    targetLeft = getDragExtent() - mDragMaxWidth;
+                } else {
+                    targetLeft = getDragExtent();
+                }
+                if (isSettleEngineUsed()) {
+                    //ViewDragHelper goes idle after this,settle engine takes over with the fling velocity
+                    startSettle(targetLeft, velocity);
                 } else {
-                    mViewDragHelper.settleCapturedViewAt(getWidth(), 0);
+                    final int target = toDragViewPosition(targetLeft);
+                    mViewDragHelper.settleCapturedViewAt(isHorizontalDrag() ? target : 0,
+                            isHorizontalDrag() ? 0 : target);
+                    invalidate();
                 }
-                invalidate();
             }
         }
 
         @Override
         public void onViewDragStateChanged(int state) {
             super.onViewDragStateChanged(state);
+            updateDrawerState();
         }
 
         @Override
         public void onViewCaptured(View capturedChild, int activePointerId) {
             super.onViewCaptured(capturedChild, activePointerId);
+            mAppliedDragPrediction = 0;
+            //a new drag,release of the last one is no longer pending
+            mReleaseView = null;
+        }
+    }
+
+    /**
+     * @return index of edge in {@link DrawerLayout#mEdgeDragViews}
+     */
+    private static int edgeIndex(int edge) {
+        return Integer.numberOfTrailingZeros(edge);
+    }
+
+    /**
+     * @return true if there is a drawer at edge index,or a right drawer to inflate
+     */
+    private boolean hasDrawer(int index) {
+        return mEdgeDragViews[index] != null
+                || (index == edgeIndex(EDGE_RIGHT) && mDragLayoutResId != 0);
+    }
+
+    /**
+     * @return flags of all edges with a drawer
+     */
+    private int getDrawerEdges() {
+        int edges = 0;
+        for (int i = 0; i < mEdgeDragViews.length; i++) {
+            if (hasDrawer(i)) {
+                edges |= 1 << i;
+            }
+        }
+        return edges;
+    }
+
+    private boolean isHorizontalDrag() {
+        return mDragEdge == EDGE_LEFT || mDragEdge == EDGE_RIGHT;
+    }
+
+    /**
+     * @return true if drawer opens to the right or down,so its position is mirrored
+     */
+    private boolean isMirroredDrag() {
+        return mDragEdge == EDGE_LEFT || mDragEdge == EDGE_TOP;
+    }
+
+    /**
+     * @return size of this layout along the drag direction,{@link DrawerLayout#mDragViewLeft} equals it when closed
+     */
+    private int getDragExtent() {
+        return isHorizontalDrag() ? getWidth() : getHeight();
+    }
+
+    private int getScreenSize() {
+        return isHorizontalDrag() ? mScreenWidth : mScreenHeight;
+    }
+
+    /**
+     * @return closed position of {@link DrawerLayout#mDragViewLeft},screen size before first layout
+     */
+    private int getClosedDragViewPosition() {
+        final int extent = getDragExtent();
+        return extent > 0 ? extent : getScreenSize();
+    }
+
+    /**
+     * convert between {@link DrawerLayout#mDragViewLeft} and real left(top for top/bottom drawer)
+     * of {@link DrawerLayout#mDragView},it's the same for right/bottom drawer and mirrored for left/top drawer
+     */
+    private int toDragViewPosition(int position) {
+        return isMirroredDrag() ? getDragExtent() - mDragMaxWidth - position : position;
+    }
+
+    /**
+     * make the drawer of edge the active one,only when current drawer is closed and idle.
+     * the old drawer is hidden and left out of measure and layout,the new one is brought to front
+     * without a layout pass and stays detached until it's shown
+     *
+     * @return true if drawer of edge is active now
+     */
+    private boolean activateDrawer(int edge) {
+        if (edge == mDragEdge) {
+            return true;
+        }
+        final int index = edgeIndex(edge);
+        if (!hasDrawer(index)) {
+            return false;
+        }
+        if (mDragView != null) {
+            if (mDrawerState != STATE_IDLE || mDragViewLeft < getDragExtent()) {
+                return false;//current drawer is still shown
+            }
+            cancelPrewarm();
+            restoreDragLayer();
+            if (!mIsDragViewDetached) {
+                if (mIsDetachWhenClosed) {
+                    detachDragView();
+                } else {
+                    //inactive drawers are hidden,it's not a detach and listener is not told
+                    mDragView.setVisibility(INVISIBLE);
+                }
+            }
+        }
+        mEdgeDragMaxSizes[edgeIndex(mDragEdge)] = mDragMaxWidth;
+        mDragEdge = edge;
+        mDragView = mEdgeDragViews[index];
+        mDragMaxWidth = mEdgeDragMaxSizes[index];
+        mDragViewLeft = getClosedDragViewPosition();
+        mDragRatio = 0;
+        mIsReportedOpen = false;
+        mIsDragViewDetached = mDragView != null;
+        mDragMeasureKey = INVALID_MEASURE_KEY;
+        mValidatedDragWidth = -1;
+        mPivotWidth = -1;
+        if (mContentView != null) {
+            mContentView.setTranslationX(0);
+            mContentView.setTranslationY(0);
+        }
+        if (mDragView != null) {
+            if (getChildAt(getChildCount() - 1) != mDragView) {
+                //move it to the top without bringChildToFront(),which requests layout
+                detachViewFromParent(mDragView);
+                attachViewToParent(mDragView, -1, mDragView.getLayoutParams());
+            }
+            if (!mIsDetachWhenClosed) {
+                //shown and laid out at its closed position right away,without detach/attach callbacks
+                mIsDragViewDetached = false;
+                mDragView.setVisibility(VISIBLE);
+                mDragView.forceLayout();
+                layoutDragViewNow();
+            }
+            updateDragLayer();
+            initDragEffects();
+        }
+        if (mStateSnapshot != null) {
+            publishStateSnapshot();
         }
+        return true;
+    }
+
+    /**
+     * set the width of zone at edges where a drag can open the drawer,
+     * touches outside of it skip drag handling completely when drawer is closed
+     *
+     * @param edgeSize size in pixels,default is the edge size of {@link ViewDragHelper}
+     */
+    public void setEdgeSize(int edgeSize) {
+        this.mEdgeSize = edgeSize;
+    }
+
+    public int getEdgeSize() {
+        return mEdgeSize;
     }
 
     /**
-     * set the color of {@link DrawerLayout#mMaskView}
+     * set the color of mask drawn at the left of {@link DrawerLayout#mDragView}
      *
      * @param maskColor color
      * @see DrawerLayout#mMaskColor
      */
     public void setMaskColor(@ColorInt int maskColor) {
         this.mMaskColor = maskColor;
-        if (mMaskView != null) {
-            mMaskView.setBackgroundColor(maskColor);
-        }
+        invalidate();
     }
 
     /**
@@ -375,6 +1470,7 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
      */
     public void setMaskEnable(boolean enable) {
         this.mIsMaskEnable = enable;
+        invalidate();
     }
 
     /**
@@ -392,94 +1488,1281 @@ public class DrawerLayout extends ViewGroup implements View.OnClickListener {
     }
 
     /**
-     * Open {@link DrawerLayout#mDragView}
+     * set when {@link DrawerLayout#mDragView} should be rendered into a hardware layer,
+     * with a layer the drawer is only composited when it moves or changes alpha/scale,
+     * instead of redrawing the whole subtree every frame
+     *
+     * @param policy default is {@link DrawerLayout#LAYER_POLICY_OFF}
+     * @see DrawerLayout#LAYER_POLICY_DURING_MOTION
+     * @see DrawerLayout#LAYER_POLICY_ALWAYS
      */
-    public void openDrawer() {
-        mMaskView.setVisibility(VISIBLE);
-        if (!mIsMaskEnable) {
-            mMaskView.setAlpha(0);
-        }
-        smoothSlideToEdge(false);
+    public void setLayerPolicy(@LayerPolicy int policy) {
+        this.mLayerPolicy = policy;
+        updateDragLayer();
+    }
+
+    @LayerPolicy
+    public int getLayerPolicy() {
+        return mLayerPolicy;
     }
 
     /**
-     * Close {@link DrawerLayout#mDragView}
+     * set whether {@link DrawerLayout#mDragView} hides content under it,
+     * content view is clipped to the left of an opaque drawer so that strip isn't drawn twice
+     *
+     * @param opacity default is {@link DrawerLayout#DRAWER_OPACITY_AUTO},which treats drawer as opaque
+     *                when its background is opaque and it has no alpha,scale or translation
+     * @see DrawerLayout#DRAWER_OPACITY_OPAQUE
+     * @see DrawerLayout#DRAWER_OPACITY_TRANSLUCENT
      */
-    public void closeDrawer() {
-        smoothSlideToEdge(true);
+    public void setDrawerOpacity(@DrawerOpacity int opacity) {
+        this.mDrawerOpacity = opacity;
+        invalidate();
+    }
+
+    @DrawerOpacity
+    public int getDrawerOpacity() {
+        return mDrawerOpacity;
     }
 
     /**
-     * get if {@link DrawerLayout#mDragView} is opened
+     * fade {@link DrawerLayout#mDragView} from minAlpha when closed to 1 when fully opened,
+     * the drawer is kept in a hardware layer while moving if it has overlapping children
+     *
+     * @param minAlpha default is 1,no fade
      */
-    public boolean isDrawerOpen() {
-        return mDragViewLeft < (getWidth() - mDragMaxWidth / 2);
+    public void setDragMinAlpha(@FloatRange(from = 0, to = 1) float minAlpha) {
+        this.mDragMinAlpha = minAlpha;
+        updateDragLayer();
+        applyDragEffects();
     }
 
     /**
-     * set {@link DrawerLayout#mDragView} drag listener with {@link DrawerLayout#mDragRatio} callback
+     * scale {@link DrawerLayout#mDragView} from minScale when closed to 1 when fully opened
      *
-     * @see DrawerLayout.DragRatioListener
+     * @param minScale default is 1,no scale
      */
-    public void setDragRatioListener(DragRatioListener listener) {
-        this.mDragRatioListener = listener;
+    public void setDragMinScale(@FloatRange(from = 0, to = 1) float minScale) {
+        this.mDragMinScale = minScale;
+        updateDragPivot();
+        applyDragEffects();
     }
 
     /**
-     * smooth move {@link DrawerLayout#mDragView} to exact value with duration
+     * set horizontal pivot of drag scale,as a fraction of {@link DrawerLayout#mDragView} width
      *
-     * @param toWidth  new width of {@link DrawerLayout#mDragView}
-     * @param duration duration about animation
+     * @param pivotX default is 0.5,the center of drawer
      */
-    public void smoothSlideTo(final int toWidth, long duration) {
-        if (toWidth != mDragViewLeft) {
+    public void setDragScalePivotX(float pivotX) {
+        this.mDragScalePivotX = pivotX;
+        mPivotWidth = -1;
+        updateDragPivot();
+    }
 
-            ValueAnimator dragAnim = ValueAnimator.ofInt(mDragMaxWidth, toWidth);
-            dragAnim.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator animation) {
-                    int value = (int) animation.getAnimatedValue();
-                    mDragView.getLayoutParams().width = value;
-                    mDragView.requestLayout();
-
-                    mDragMaxWidth = value;
-                    mDragViewLeft = mScreenWidth - value;
-                    requestLayout();
-                }
-            });
-            dragAnim.setDuration(duration);
-            dragAnim.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    mDragMaxWidth = mScreenWidth - toWidth;
-                }
-            });
-            dragAnim.start();
+    /**
+     * move content view away from drawer by parallax times of drawer visible width when dragging
+     *
+     * @param parallax default is 0,content never moves
+     */
+    public void setContentParallax(@FloatRange(from = 0, to = 1) float parallax) {
+        this.mContentParallax = parallax;
+        applyDragEffects();
+    }
+
+    /**
+     * set elevation of {@link DrawerLayout#mDragView},it casts a shadow on content from LOLLIPOP
+     *
+     * @param elevation default is 0
+     */
+    public void setDragElevation(float elevation) {
+        this.mDragElevation = elevation;
+        this.mIsDragElevationSet = true;
+        initDragEffects();
+    }
+
+    private void initDragEffects() {
+        if (mDragView == null) {
+            return;
+        }
+        if (mIsDragElevationSet) {
+            ViewCompat.setElevation(mDragView, mDragElevation);
         }
+        updateDragPivot();
+        applyDragEffects();
     }
 
     /**
-     * smooth slide {@link DrawerLayout#mDragView} to edge
-     * drive by {@link ViewDragHelper#smoothSlideViewTo(View, int, int)} method
+     * set pivot of {@link DrawerLayout#mDragView} only when its size changes,not on every frame
+     */
+    private void updateDragPivot() {
+        if (mDragView == null || mDragMinScale >= 1f) {
+            return;
+        }
+        final int width = mDragView.getWidth();
+        final int height = mDragView.getHeight();
+        if (width != mPivotWidth || height != mPivotHeight) {
+            mPivotWidth = width;
+            mPivotHeight = height;
+            mDragView.setPivotX(width * mDragScalePivotX);
+            mDragView.setPivotY(height / 2f);
+        }
+    }
+
+    private boolean hasDragEffects() {
+        return mDragMinAlpha < 1f || mDragMinScale < 1f || mContentParallax != 0;
+    }
+
+    /**
+     * apply drag effects with {@link DrawerLayout#mDragRatio},they only change render properties
+     * of children(alpha,scale,translation),so never measure or layout
+     */
+    private void applyDragEffects() {
+        //effects are reset to a fully opened look when quality is reduced
+        final float ratio = mQualityLevel >= QUALITY_NO_EFFECTS ? 1f : Math.max(0f, Math.min(mDragRatio, 1f));
+        if (mDragView != null) {
+            mDragView.setAlpha(mDragMinAlpha + (1f - mDragMinAlpha) * ratio);
+            final float scale = mDragMinScale + (1f - mDragMinScale) * ratio;
+            mDragView.setScaleX(scale);
+            mDragView.setScaleY(scale);
+        }
+        if (mContentView != null) {
+            //content moves away from the edge drawer comes from
+            final float translation = mQualityLevel >= QUALITY_NO_EFFECTS
+                    ? 0 : mContentParallax * Math.max(0, getDragExtent() - mDragViewLeft);
+            switch (mDragEdge) {
+                case EDGE_LEFT:
+                    mContentView.setTranslationX(translation);
+                    break;
+                case EDGE_TOP:
+                    mContentView.setTranslationY(translation);
+                    break;
+                case EDGE_BOTTOM:
+                    mContentView.setTranslationY(-translation);
+                    break;
+                default:
+                    mContentView.setTranslationX(-translation);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * freeze content view into a snapshot when {@link DrawerLayout#mDragRatio} reaches ratio,
+     * the snapshot is taken once drawer settles there,then it's drawn instead and content view is INVISIBLE,
+     * so content skips drawing until drawer closes below ratio again.
+     * NOTE:content is drawn into a software bitmap,SurfaceView/TextureView in it are not captured
      *
-     * @param toEdge slide to edge?
+     * @param ratio 0 disables it,default is 0
      */
-    private void smoothSlideToEdge(boolean toEdge) {
-        //TODO maybe padding values need be considered
-//        final int leftBound = getPaddingLeft();
-        int offset = 0;
-        if (!toEdge) {
-            offset = getWidth() - mDragMaxWidth;
+    public void setFreezeContentRatio(@FloatRange(from = 0, to = 1) float ratio) {
+        this.mFreezeContentRatio = ratio;
+        updateContentFrozen();
+        if (ratio <= 0) {
+            releaseContentSnapshot();
         } else {
-            offset = getWidth();
+            ensureContentSnapshot(getWidth(), getHeight());
+        }
+    }
+
+    public float getFreezeContentRatio() {
+        return mFreezeContentRatio;
+    }
+
+    /**
+     * @return true if content view is replaced by its snapshot now
+     */
+    public boolean isContentFrozen() {
+        return mIsContentFrozen;
+    }
+
+    /**
+     * freeze or unfreeze content view according to {@link DrawerLayout#mDragRatio},
+     * content is only drawn into snapshot when drawer is idle,never in a drag or settle frame
+     */
+    private void updateContentFrozen() {
+        final boolean freeze = mFreezeContentRatio > 0 && mDragRatio >= mFreezeContentRatio;
+        if (freeze && !mIsContentFrozen && mDrawerState == STATE_IDLE) {
+            freezeContent();
+        } else if (!freeze && mIsContentFrozen) {
+            unfreezeContent();
         }
+    }
 
-        if (mViewDragHelper.smoothSlideViewTo(mDragView, offset, mDragView.getTop())) {
-            //force invalidate before next frame comes.
-            ViewCompat.postInvalidateOnAnimation(this);
+    private void freezeContent() {
+        final int width = getWidth();
+        final int height = getHeight();
+        if (mContentView == null || width <= 0 || height <= 0) {
+            return;
+        }
+        if (!ensureContentSnapshot(width, height)) {
+            return;
+        }
+        mContentSnapshot.eraseColor(0);
+        mContentView.draw(mSnapshotCanvas);
+        mIsContentFrozen = true;
+        //INVISIBLE content skips drawing,but keeps its layout
+        mContentView.setVisibility(INVISIBLE);
+        invalidate();
+    }
+
+    /**
+     * allocate snapshot bitmap of size ahead of freezing,it's reused for every open until size changes
+     *
+     * @return false if there is no snapshot of size
+     */
+    private boolean ensureContentSnapshot(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        if (mContentSnapshot != null
+                && mContentSnapshot.getWidth() == width && mContentSnapshot.getHeight() == height) {
+            return true;
+        }
+        releaseContentSnapshot();
+        try {
+            mContentSnapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } catch (OutOfMemoryError e) {
+            Log.w(TAG, "ensureContentSnapshot: no memory for content snapshot,keep it live");
+            return false;
         }
+        mSnapshotCanvas = new Canvas(mContentSnapshot);
+        return true;
+    }
+
+    private void unfreezeContent() {
+        if (!mIsContentFrozen) {
+            return;
+        }
+        mIsContentFrozen = false;
+        //redraws content with everything changed while frozen
+        mContentView.setVisibility(VISIBLE);
+        invalidate();
     }
 
+    private void releaseContentSnapshot() {
+        if (mContentSnapshot != null && !mIsContentFrozen) {
+            mContentSnapshot.recycle();
+            mContentSnapshot = null;
+            mSnapshotCanvas = null;
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (mFreezeContentRatio > 0) {
+            //snapshot of old size is stale,allocate the new one now rather than in the frame it's taken
+            final boolean frozen = mIsContentFrozen;
+            unfreezeContent();
+            ensureContentSnapshot(w, h);
+            if (frozen) {
+                freezeContent();
+            }
+        }
+    }
+
+    /**
+     * pixels drawn for content view,mask and {@link DrawerLayout#mDragView} in last frame,
+     * divided by pixels of this layout,1 means each pixel drawn once.
+     * NOTE:only counted in debug build,always 0 in release,and backgrounds inside children are not counted
+     */
+    public float getLastFrameOverdraw() {
+        return mLastFrameOverdraw;
+    }
+
+    /**
+     * promote or restore layer type of {@link DrawerLayout#mDragView}
+     * according to {@link DrawerLayout#mLayerPolicy} and current drag state
+     */
+    private void updateDragLayer() {
+        final boolean inMotion = mDrawerState != STATE_IDLE || mIsPrewarming;
+        //fading a drawer with overlapping children without a layer needs an offscreen buffer every frame
+        final boolean fadeNeedsLayer = mDragMinAlpha < 1f && mQualityLevel < QUALITY_NO_EFFECTS && mDragView != null
+                && mDragView.hasOverlappingRendering();
+        if (mLayerPolicy == LAYER_POLICY_ALWAYS
+                || ((mLayerPolicy == LAYER_POLICY_DURING_MOTION || fadeNeedsLayer) && inMotion)) {
+            promoteDragLayer();
+        } else {
+            restoreDragLayer();
+        }
+    }
+
+    private void promoteDragLayer() {
+        if (mIsDragLayerPromoted || mDragView == null) {
+            return;
+        }
+        mDragLayerTypeBeforePromote = ViewCompat.getLayerType(mDragView);
+        if (mDragLayerTypeBeforePromote != ViewCompat.LAYER_TYPE_HARDWARE) {
+            ViewCompat.setLayerType(mDragView, ViewCompat.LAYER_TYPE_HARDWARE, null);
+        }
+        mIsDragLayerPromoted = true;
+    }
+
+    private void restoreDragLayer() {
+        if (!mIsDragLayerPromoted) {
+            return;
+        }
+        if (mDragLayerTypeBeforePromote != ViewCompat.LAYER_TYPE_HARDWARE) {
+            ViewCompat.setLayerType(mDragView, mDragLayerTypeBeforePromote, null);
+        }
+        mIsDragLayerPromoted = false;
+    }
+
+    /**
+     * enable recording frame timing and layout passes of every gesture,
+     * it's cheap but not free,so it's disabled by default
+     *
+     * @param enable enable or not
+     * @see DrawerLayout#getMetrics()
+     */
+    public void setMetricsEnabled(boolean enable) {
+        if (enable && mMetrics == null) {
+            mMetrics = new DrawerMetrics(getContext());
+        } else if (!enable && mMetrics != null) {
+            mMetrics.endGesture();
+            mMetrics = null;
+        }
+    }
+
+    /**
+     * @return recorded metrics,null if {@link DrawerLayout#setMetricsEnabled(boolean)} is not enabled
+     */
+    public DrawerMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * step quality down in stages when drag or settle frames are dropped,and back up after
+     * a run of healthy frames,see {@link DrawerLayout#QUALITY_NO_EFFECTS},
+     * {@link DrawerLayout#QUALITY_THROTTLED_LISTENERS} and {@link DrawerLayout#QUALITY_SIMPLE_SETTLE}.
+     * frames are watched with Choreographer,so it does nothing below JELLY_BEAN
+     *
+     * @param enable default is false,disabling it restores full quality
+     */
+    public void setAdaptiveQualityEnabled(boolean enable) {
+        if (enable && mAdaptiveQuality == null) {
+            mAdaptiveQuality = new AdaptiveQuality(DrawerMetrics.getFrameIntervalNanos(getContext()),
+                    QUALITY_SIMPLE_SETTLE, new AdaptiveQuality.Listener() {
+                @Override
+                public void onLevelChanged(int oldLevel, int newLevel) {
+                    setQualityLevel(newLevel);
+                }
+            });
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                mQualityTicker = new DrawerFrameTicker(new DrawerFrameTicker.Callback() {
+                    @Override
+                    public void onFrame(long frameIntervalNanos) {
+                        mAdaptiveQuality.onFrame(frameIntervalNanos);
+                    }
+                });
+                if (mDrawerState != STATE_IDLE) {
+                    mQualityTicker.start();
+                }
+            }
+        } else if (!enable && mAdaptiveQuality != null) {
+            if (mQualityTicker != null) {
+                mQualityTicker.stop();
+                mQualityTicker = null;
+            }
+            mAdaptiveQuality = null;
+            setQualityLevel(QUALITY_FULL);
+        }
+    }
+
+    /**
+     * @return current quality level,always {@link DrawerLayout#QUALITY_FULL} if adaptive quality is disabled
+     */
+    @QualityLevel
+    public int getQualityLevel() {
+        return mQualityLevel;
+    }
+
+    /**
+     * set listener called when adaptive quality steps down or up
+     */
+    public void setOnQualityChangeListener(OnQualityChangeListener listener) {
+        this.mQualityChangeListener = listener;
+    }
+
+    private void setQualityLevel(int level) {
+        final int oldLevel = mQualityLevel;
+        if (level == oldLevel) {
+            return;
+        }
+        //noinspection WrongConstant
+        mQualityLevel = level;
+        if (hasDragEffects() && (oldLevel < QUALITY_NO_EFFECTS) != (level < QUALITY_NO_EFFECTS)) {
+            applyDragEffects();
+            updateDragLayer();
+        }
+        if (mIsMaskEnable) {
+            invalidate();
+        }
+        if (mQualityChangeListener != null) {
+            mQualityChangeListener.onQualityChanged(oldLevel, level);
+        }
+    }
+
+    /**
+     * follow the finger with less latency when dragging:moves are requested to be dispatched unbuffered
+     * instead of batched to vsync(only from LOLLIPOP),and with {@link DrawerLayout#setDragPredictionMillis(int)}
+     * dragView is put where the finger is predicted to be
+     *
+     * @param enable default is false
+     */
+    public void setLowLatencyDragEnabled(boolean enable) {
+        this.mIsLowLatencyDrag = enable;
+        if (!enable) {
+            mDragPrediction = 0;
+        }
+    }
+
+    public boolean isLowLatencyDragEnabled() {
+        return mIsLowLatencyDrag;
+    }
+
+    /**
+     * predict finger position this time ahead from velocity of latest touch samples when dragging,
+     * only available when {@link DrawerLayout#setLowLatencyDragEnabled(boolean)} is enabled.
+     * about one frame is enough,longer prediction overshoots when finger stops
+     *
+     * @param millis 0 disables prediction,at most 32,default is 0
+     */
+    public void setDragPredictionMillis(int millis) {
+        this.mDragPredictionMillis = Math.max(0, Math.min(millis, MAX_DRAG_PREDICTION_MILLIS));
+    }
+
+    public int getDragPredictionMillis() {
+        return mDragPredictionMillis;
+    }
+
+    /**
+     * record touch events and the drag position/state timeline into trace,
+     * it's cheap but not free,so it's disabled by default
+     *
+     * @param trace trace to record into,anything in it is dropped.null to stop recording
+     */
+    public void setTouchTrace(DrawerTouchTrace trace) {
+        mTouchTrace = trace;
+        if (trace != null) {
+            final long now = AnimationUtils.currentAnimationTimeMillis();
+            trace.begin(getWidth(), getHeight(), mDragMaxWidth, mDragEdge, now);
+            trace.recordPosition(now, mDragViewLeft);
+            trace.recordState(now, mDrawerState);
+        }
+    }
+
+    /**
+     * @return trace recording now,null if {@link DrawerLayout#setTouchTrace(DrawerTouchTrace)} is not set
+     */
+    public DrawerTouchTrace getTouchTrace() {
+        return mTouchTrace;
+    }
+
+    /**
+     * main thread only,hand the returned snapshot to other threads and let them only read it
+     *
+     * @return snapshot of drawer state which any thread can read without locking,
+     * drawer starts publishing into it on the first call
+     */
+    public DrawerStateSnapshot getStateSnapshot() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            //main thread is the only writer of the snapshot
+            throw new IllegalStateException("getStateSnapshot() must be called on main thread!");
+        }
+        if (mStateSnapshot == null) {
+            mStateSnapshot = new DrawerStateSnapshot();
+            publishStateSnapshot();
+        }
+        return mStateSnapshot;
+    }
+
+    /**
+     * publish {@link DrawerLayout#getStateSnapshot()} once per frame with frame time during drag and settle,
+     * instead of on every position change.state changes and positions set when idle are published right away
+     *
+     * @param perFrame default is false
+     */
+    public void setStateSnapshotPerFrame(boolean perFrame) {
+        this.mIsSnapshotPerFrame = perFrame;
+        if (!perFrame && mIsSnapshotPublishPosted) {
+            mIsSnapshotPublishPosted = false;
+            removeCallbacks(mPublishStateSnapshot);
+            publishStateSnapshot();
+        }
+    }
+
+    public boolean isStateSnapshotPerFrame() {
+        return mIsSnapshotPerFrame;
+    }
+
+    private final Runnable mPublishStateSnapshot = new Runnable() {
+        @Override
+        public void run() {
+            mIsSnapshotPublishPosted = false;
+            publishStateSnapshot();
+        }
+    };
+
+    private void publishStateSnapshot() {
+        mStateSnapshot.publish(toDragViewPosition(mDragViewLeft), mDragRatio, mDrawerState, mDragMaxWidth,
+                mDragEdge, AnimationUtils.currentAnimationTimeMillis());
+    }
+
+    /**
+     * Open {@link DrawerLayout#mDragView}
+     */
+    public void openDrawer() {
+        if (!ensureDragView()) {
+            return;
+        }
+        beginMetricsGesture(DrawerMetrics.GESTURE_OPEN);
+        smoothSlideToEdge(false);
+    }
+
+    /**
+     * Open drawer of edge,ignored if there is no drawer there or another drawer is shown
+     *
+     * @param edge one of {@link DrawerLayout#EDGE_LEFT},{@link DrawerLayout#EDGE_RIGHT},
+     *             {@link DrawerLayout#EDGE_TOP},{@link DrawerLayout#EDGE_BOTTOM}
+     */
+    public void openDrawer(@DrawerEdge int edge) {
+        if (activateDrawer(edge)) {
+            openDrawer();
+        }
+    }
+
+    /**
+     * @return edge of the active drawer,which is shown or opened next by {@link DrawerLayout#openDrawer()}
+     */
+    @DrawerEdge
+    public int getDrawerEdge() {
+        return mDragEdge;
+    }
+
+    /**
+     * @return drawer of edge,null if there is none or it's not inflated yet
+     */
+    public View getDragView(@DrawerEdge int edge) {
+        return mEdgeDragViews[edgeIndex(edge)];
+    }
+
+    /**
+     * Close {@link DrawerLayout#mDragView}
+     */
+    public void closeDrawer() {
+        if (mDragView == null) {//not inflated yet,so it's closed
+            return;
+        }
+        beginMetricsGesture(DrawerMetrics.GESTURE_CLOSE);
+        smoothSlideToEdge(true);
+    }
+
+    /**
+     * start recording a gesture if there is no gesture recording now
+     */
+    private void beginMetricsGesture(int gesture) {
+        if (mMetrics != null && mMetrics.getCurrentGesture() == DrawerMetrics.GESTURE_NONE) {
+            mMetrics.beginGesture(gesture);
+        }
+    }
+
+    /**
+     * open or close {@link DrawerLayout#mDragView}
+     *
+     * @param open    open or close
+     * @param animate false to jump to the position right now without any animation,
+     *                before first layout it's applied in that layout pass
+     */
+    public void setDrawerOpen(boolean open, boolean animate) {
+        if (animate) {
+            if (open) {
+                openDrawer();
+            } else {
+                closeDrawer();
+            }
+            return;
+        }
+        if (open ? !ensureDragView() : mDragView == null) {
+            return;
+        }
+        stopSmoothSlide();
+        if (isSettleEngineRunning()) {
+            mSettleEngine.cancel();
+        }
+        if (mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE) {
+            mViewDragHelper.abort();
+        }
+        if (getWidth() == 0 || mDragView.getWidth() == 0) {
+            mHasPendingJump = true;
+            mIsPendingJumpOpen = open;
+            requestLayout();
+            return;
+        }
+        final int left = open ? getDragExtent() - mDragMaxWidth : getDragExtent();
+        moveDragViewTo(left);
+        updateDrawerState();
+        onDrawerIdle();
+    }
+
+    /**
+     * get if {@link DrawerLayout#mDragView} is opened
+     */
+    public boolean isDrawerOpen() {
+        return mDragViewLeft < (getDragExtent() - mDragMaxWidth / 2);
+    }
+
+    /**
+     * set layout of {@link DrawerLayout#mDragView} which is inflated lazily on first
+     * edge drag or {@link DrawerLayout#openDrawer()},only available when there is no dragView yet
+     *
+     * @param layoutResId layout of dragView
+     * @see DrawerLayout#setOnDragViewInflatedListener(OnDragViewInflatedListener)
+     */
+    public void setDragLayout(@LayoutRes int layoutResId) {
+        if (mEdgeDragViews[edgeIndex(EDGE_RIGHT)] != null) {
+            throw new IllegalStateException("Drag view already exists!");
+        }
+        this.mDragLayoutResId = layoutResId;
+        mViewDragHelper.setEdgeTrackingEnabled(getDrawerEdges());
+        requestLayout();
+    }
+
+    /**
+     * inflate {@link DrawerLayout#mDragView} when main thread is idle after attached to window,
+     * instead of waiting for first open
+     *
+     * @param preInflate default is false
+     */
+    public void setPreInflateWhenIdle(boolean preInflate) {
+        this.mIsPreInflateWhenIdle = preInflate;
+    }
+
+    /**
+     * set listener called right after {@link DrawerLayout#mDragView} inflated lazily,
+     * bind the content of dragView there
+     */
+    public void setOnDragViewInflatedListener(OnDragViewInflatedListener listener) {
+        this.mDragViewInflatedListener = listener;
+    }
+
+    /**
+     * inflate {@link DrawerLayout#mDragView} now if it's set by {@link DrawerLayout#setDragLayout(int)}
+     *
+     * @return dragView,null if there is nothing to inflate
+     */
+    public View inflateDragView() {
+        ensureDragView();
+        return mDragView;
+    }
+
+    /**
+     * @return dragView,null if it's not inflated yet
+     */
+    public View getDragView() {
+        return mDragView;
+    }
+
+    /**
+     * hide {@link DrawerLayout#mDragView} and leave it out of measure and layout when
+     * drawer is fully closed,it comes back on edge drag or open
+     *
+     * @param detach default is false
+     * @see DrawerLayout#setOnDragViewDetachListener(OnDragViewDetachListener)
+     */
+    public void setDetachWhenClosed(boolean detach) {
+        this.mIsDetachWhenClosed = detach;
+        if (detach) {
+            updateDragViewDetached();
+        } else if (mIsDragViewDetached) {
+            attachDragView();
+        }
+    }
+
+    /**
+     * set listener to pause expensive content of {@link DrawerLayout#mDragView}(live list,animations)
+     * when it's detached,and resume it when it's attached again
+     */
+    public void setOnDragViewDetachListener(OnDragViewDetachListener listener) {
+        this.mDragViewDetachListener = listener;
+    }
+
+    /**
+     * set {@link DrawerLayout#mDragView} drag listener with {@link DrawerLayout#mDragRatio} callback,
+     * it replaces all listeners added before
+     *
+     * @see DrawerLayout.DragRatioListener
+     * @see DrawerLayout#addDragRatioListener(DragRatioListener)
+     */
+    public void setDragRatioListener(DragRatioListener listener) {
+        mDragRatioListeners = EMPTY_RATIO_LISTENERS;
+        if (listener != null) {
+            addDragRatioListener(listener);
+        }
+    }
+
+    /**
+     * add a {@link DrawerLayout.DragRatioListener},listeners are called in added order
+     */
+    public void addDragRatioListener(DragRatioListener listener) {
+        final DragRatioListener[] old = mDragRatioListeners;
+        final DragRatioListener[] listeners = new DragRatioListener[old.length + 1];
+        System.arraycopy(old, 0, listeners, 0, old.length);
+        listeners[old.length] = listener;
+        mDragRatioListeners = listeners;
+    }
+
+    public void removeDragRatioListener(DragRatioListener listener) {
+        final DragRatioListener[] old = mDragRatioListeners;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == listener) {
+                final DragRatioListener[] listeners = old.length == 1
+                        ? EMPTY_RATIO_LISTENERS : new DragRatioListener[old.length - 1];
+                System.arraycopy(old, 0, listeners, 0, i);
+                System.arraycopy(old, i + 1, listeners, i, old.length - i - 1);
+                mDragRatioListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * add a {@link DrawerLayout.DrawerStateListener},listeners are called in added order
+     */
+    public void addDrawerStateListener(DrawerStateListener listener) {
+        final DrawerStateListener[] old = mDrawerStateListeners;
+        final DrawerStateListener[] listeners = new DrawerStateListener[old.length + 1];
+        System.arraycopy(old, 0, listeners, 0, old.length);
+        listeners[old.length] = listener;
+        mDrawerStateListeners = listeners;
+    }
+
+    public void removeDrawerStateListener(DrawerStateListener listener) {
+        final DrawerStateListener[] old = mDrawerStateListeners;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == listener) {
+                final DrawerStateListener[] listeners = old.length == 1
+                        ? EMPTY_STATE_LISTENERS : new DrawerStateListener[old.length - 1];
+                System.arraycopy(old, 0, listeners, 0, i);
+                System.arraycopy(old, i + 1, listeners, i, old.length - i - 1);
+                mDrawerStateListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * dispatch ratio at most once per frame instead of every position change,
+     * listeners doing expensive view work should enable it
+     *
+     * @param coalesce default is false
+     */
+    public void setCoalesceDragRatioUpdates(boolean coalesce) {
+        this.mIsCoalesceDragRatio = coalesce;
+    }
+
+    /**
+     * @return one of {@link DrawerLayout#STATE_IDLE},{@link DrawerLayout#STATE_DRAGGING},
+     * {@link DrawerLayout#STATE_SETTLING}
+     */
+    public int getDrawerState() {
+        return mDrawerState;
+    }
+
+    private final Runnable mDispatchDragRatio = new Runnable() {
+        @Override
+        public void run() {
+            if (mQualityLevel >= QUALITY_THROTTLED_LISTENERS
+                    && AnimationUtils.currentAnimationTimeMillis() - mLastDragRatioDispatchTime < THROTTLED_DRAG_RATIO_MILLIS) {
+                ViewCompat.postOnAnimation(DrawerLayout.this, this);
+                return;
+            }
+            mIsDragRatioDispatchPosted = false;
+            dispatchDragRatio();
+        }
+    };
+
+    private void dispatchDragRatio() {
+        final DragRatioListener[] listeners = mDragRatioListeners;
+        if (listeners.length == 0) {
+            return;
+        }
+        mLastDragRatioDispatchTime = AnimationUtils.currentAnimationTimeMillis();
+        final long start = mMetrics != null ? System.nanoTime() : 0;
+        for (DragRatioListener listener : listeners) {
+            listener.onDragRatioChange(mDragRatio, mDragView);
+        }
+        if (mMetrics != null) {
+            mMetrics.addListenerTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * called when {@link DrawerLayout#mDragView} moved by drag,settle or animation
+     *
+     * @param left new left bound of dragView
+     */
+    private void onDragViewPositionChanged(int left) {
+        mDragViewLeft = left;
+        if (mTouchTrace != null) {
+            mTouchTrace.recordPosition(AnimationUtils.currentAnimationTimeMillis(), left);
+        }
+        mDragRatio = (float) (getDragExtent() - left) / mDragMaxWidth;
+        if (mStateSnapshot != null) {
+            if (!mIsSnapshotPerFrame || mDrawerState == STATE_IDLE) {
+                publishStateSnapshot();
+            } else if (!mIsSnapshotPublishPosted) {
+                //only the latest position is published once at the next frame
+                mIsSnapshotPublishPosted = true;
+                ViewCompat.postOnAnimation(this, mPublishStateSnapshot);
+            }
+        }
+        if (hasDragEffects() && mQualityLevel < QUALITY_NO_EFFECTS) {
+            applyDragEffects();
+        }
+        if (mIsCoalesceDragRatio || mQualityLevel >= QUALITY_THROTTLED_LISTENERS) {
+            //only the latest ratio is dispatched once at the next frame
+            if (!mIsDragRatioDispatchPosted) {
+                mIsDragRatioDispatchPosted = true;
+                ViewCompat.postOnAnimation(this, mDispatchDragRatio);
+            }
+        } else {
+            dispatchDragRatio();
+        }
+
+        //dragView has already been moved with offsetLeftAndRight(),
+        //the size of children never change when dragging,so no need to requestLayout()
+        //on every pixel,just redraw the mask and content clip which follow the dragView
+        updateContentFrozen();
+        if (mIsMaskEnable || mIsContentClipped || mIsContentFrozen) {
+            invalidate();
+        }
+    }
+
+    /**
+     * merge state of {@link ViewDragHelper},settle engine and width animation into
+     * {@link DrawerLayout#mDrawerState},update layer and metrics with it,
+     * and notify {@link DrawerLayout.DrawerStateListener} when it changes
+     */
+    private void updateDrawerState() {
+        int state = mViewDragHelper.getViewDragState();
+        if (state == STATE_IDLE && (mWidthAnimation.isRunning() || isSettleEngineRunning())) {
+            state = STATE_SETTLING;
+        }
+        if (state != STATE_IDLE && mIsPrewarming) {//drag or settle took over the prewarm
+            mIsPrewarming = false;
+            removeCallbacks(mCancelPrewarm);
+        }
+        final int oldState = mDrawerState;
+        mDrawerState = state;
+        updateDragLayer();
+        if (state == oldState) {
+            return;
+        }
+        if (mQualityTicker != null) {
+            //only frames of drag and settle tell how drawer performs
+            if (state == STATE_IDLE) {
+                mQualityTicker.stop();
+            } else {
+                mQualityTicker.start();
+            }
+        }
+        if (mTouchTrace != null) {
+            mTouchTrace.recordState(AnimationUtils.currentAnimationTimeMillis(), state);
+        }
+        if (mStateSnapshot != null) {
+            //state changes are published right away,with the latest position
+            if (mIsSnapshotPublishPosted) {
+                mIsSnapshotPublishPosted = false;
+                removeCallbacks(mPublishStateSnapshot);
+            }
+            publishStateSnapshot();
+        }
+        if (mMetrics != null) {
+            final int gesture = mMetrics.getCurrentGesture();
+            if (state == STATE_DRAGGING) {
+                mMetrics.beginGesture(DrawerMetrics.GESTURE_DRAG);
+            } else if (state == STATE_SETTLING) {
+                //settle after a drag is a fling,settle after open/close belongs to them
+                if (gesture == DrawerMetrics.GESTURE_NONE || gesture == DrawerMetrics.GESTURE_DRAG) {
+                    mMetrics.beginGesture(DrawerMetrics.GESTURE_SETTLE);
+                }
+            } else if (gesture != DrawerMetrics.GESTURE_SLIDE_TO) {
+                //slideTo ends after its last layout pass
+                mMetrics.endGesture();
+            }
+        }
+        final DrawerStateListener[] listeners = mDrawerStateListeners;
+        for (DrawerStateListener listener : listeners) {
+            listener.onDrawerStateChanged(state);
+        }
+        if (state == STATE_IDLE) {
+            onDrawerIdle();
+        }
+    }
+
+    /**
+     * drawer stopped,detach it if it's closed,and report open/close once
+     */
+    private void onDrawerIdle() {
+        if (mDragView == null || mDrawerState != STATE_IDLE) {
+            return;
+        }
+        if (mIsDragRatioDispatchPosted && mQualityLevel >= QUALITY_THROTTLED_LISTENERS) {
+            //listeners always get the final ratio right away
+            mIsDragRatioDispatchPosted = false;
+            removeCallbacks(mDispatchDragRatio);
+            dispatchDragRatio();
+        }
+        if (mQualityLevel >= QUALITY_NO_EFFECTS && mIsMaskEnable) {
+            invalidate();//mask alpha was held during motion
+        }
+        updateDragViewDetached();
+        updateContentFrozen();
+        final DrawerStateListener[] listeners = mDrawerStateListeners;
+        if (!mIsReportedOpen && mDragViewLeft <= getDragExtent() - mDragMaxWidth) {
+            mIsReportedOpen = true;
+            for (DrawerStateListener listener : listeners) {
+                listener.onDrawerOpened(mDragView);
+            }
+        } else if (mIsReportedOpen && mDragViewLeft >= getDragExtent()) {
+            mIsReportedOpen = false;
+            for (DrawerStateListener listener : listeners) {
+                listener.onDrawerClosed(mDragView);
+            }
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        final SavedState ss = new SavedState(super.onSaveInstanceState());
+        ss.drawerEdge = mDragEdge;
+        if (mHasPendingJump) {
+            ss.isOpen = mIsPendingJumpOpen;
+        } else if (mWidthAnimation.isRunning()) {
+            ss.isOpen = mWidthAnimation.getTarget() > 0;
+        } else if (isSettleEngineRunning()) {
+            ss.isOpen = mSettleEngine.getTarget() < getDragExtent();
+        } else {
+            ss.isOpen = mDragView != null && isDrawerOpen();
+        }
+        //only a fixed width can be changed by smoothSlideTo(),MATCH_PARENT/WRAP_CONTENT follow the attribute
+        if (mWidthAnimation.isRunning()) {
+            ss.drawerWidth = mWidthAnimation.getTarget();
+        } else if (mDragView != null && getDragViewSizeParam() > 0) {
+            ss.drawerWidth = mDragMaxWidth;
+        }
+        return ss;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        final SavedState ss = (SavedState) state;
+        super.onRestoreInstanceState(ss.getSuperState());
+        if (!activateDrawer(ss.drawerEdge) || (ss.isOpen && !ensureDragView())) {
+            return;
+        }
+        //width is applied before the first measure,so it costs no extra layout pass
+        if (mDragView != null && ss.drawerWidth > 0) {
+            final int width = Math.min(ss.drawerWidth, getScreenSize());
+            if (width != mDragMaxWidth || getDragViewSizeParam() != width) {
+                setDragViewWidth(width);
+            }
+        }
+        setDrawerOpen(ss.isOpen, false);
+    }
+
+    /**
+     * active drawer,its open state and width kept across config change and process death
+     */
+    static class SavedState extends BaseSavedState {
+        int drawerEdge = EDGE_RIGHT;
+        boolean isOpen;
+        int drawerWidth = -1;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel source) {
+            super(source);
+            drawerEdge = source.readInt();
+            isOpen = source.readInt() != 0;
+            drawerWidth = source.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeInt(drawerEdge);
+            dest.writeInt(isOpen ? 1 : 0);
+            dest.writeInt(drawerWidth);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel source) {
+                return new SavedState(source);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    /**
+     * smooth move {@link DrawerLayout#mDragView} to exact value with duration
+     * NOTE:{@link DrawerLayout#mDragView} is only measured at the start and end widths,
+     * in between it's moved with {@link View#offsetLeftAndRight(int)} and
+     * laid out once again when animation ends
+     *
+     * @param toWidth  new width of {@link DrawerLayout#mDragView}
+     * @param duration duration about animation
+     */
+    public void smoothSlideTo(int toWidth, long duration) {
+        if (!ensureDragView()) {
+            return;
+        }
+        final boolean running = mWidthAnimation.isRunning();
+        final int fromWidth = running ? mWidthAnimation.getValue() : getDragExtent() - mDragViewLeft;
+        if (running || toWidth != fromWidth || toWidth != mDragMaxWidth) {
+            //width animation moves dragView by itself,stop any settle
+            if (isSettleEngineRunning()) {
+                mSettleEngine.cancel();
+            }
+            if (mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE) {
+                mViewDragHelper.abort();
+            }
+            //lay out dragView with the bigger width during animation,
+            //so no part of it is uncovered when we move it
+            final int animWidth = Math.max(mDragMaxWidth, toWidth);
+            if (animWidth != mDragMaxWidth) {
+                setDragViewWidth(animWidth);
+            }
+            //a running animation is retargeted from where it is
+            mWidthAnimation.start(fromWidth, toWidth, duration, AnimationUtils.currentAnimationTimeMillis());
+            if (!running) {
+                if (mMetrics != null) {
+                    mMetrics.beginGesture(DrawerMetrics.GESTURE_SLIDE_TO);
+                }
+                updateDrawerState();
+            }
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    /**
+     * stop the animation started by {@link DrawerLayout#smoothSlideTo(int, long)} at current width
+     */
+    public void stopSmoothSlide() {
+        if (mWidthAnimation.isRunning()) {
+            finishWidthAnimation(mWidthAnimation.getValue());
+        }
+    }
+
+    /**
+     * step {@link DrawerLayout#mWidthAnimation} in {@link DrawerLayout#computeScroll()}
+     */
+    private void stepWidthAnimation() {
+        if (mWidthAnimation.update(AnimationUtils.currentAnimationTimeMillis())) {
+            moveDragViewTo(getDragExtent() - mWidthAnimation.getValue());
+            ViewCompat.postInvalidateOnAnimation(this);
+        } else {
+            finishWidthAnimation(mWidthAnimation.getTarget());
+        }
+    }
+
+    /**
+     * end width animation and relayout {@link DrawerLayout#mDragView} once with the final width
+     *
+     * @param width final width
+     */
+    private void finishWidthAnimation(int width) {
+        mWidthAnimation.cancel();
+        if (width != mDragMaxWidth) {
+            setDragViewWidth(width);
+        }
+        moveDragViewTo(getDragExtent() - width);
+        updateDrawerState();
+        if (mMetrics != null && mMetrics.getCurrentGesture() == DrawerMetrics.GESTURE_SLIDE_TO) {
+            //the final layout pass happens after this,so wait for it before ending
+            post(mEndSlideToMetrics);
+        }
+    }
+
+    private final Runnable mEndSlideToMetrics = new Runnable() {
+        @Override
+        public void run() {
+            if (mMetrics != null && mMetrics.getCurrentGesture() == DrawerMetrics.GESTURE_SLIDE_TO) {
+                mMetrics.endGesture();
+            }
+        }
+    };
+
+    /**
+     * change the width(height for top/bottom drawer) of {@link DrawerLayout#mDragView},
+     * it leads to a measure/layout pass
+     *
+     * @param width new width of {@link DrawerLayout#mDragView}
+     */
+    private void setDragViewWidth(int width) {
+        if (isHorizontalDrag()) {
+            mDragView.getLayoutParams().width = width;
+        } else {
+            mDragView.getLayoutParams().height = width;
+        }
+        mDragMaxWidth = width;
+        mDragView.requestLayout();
+    }
+
+    /**
+     * move {@link DrawerLayout#mDragView} along its edge without a layout pass,
+     * ratio,drag effects,listeners and snapshot follow it like they do for a drag
+     *
+     * @param left new left bound of {@link DrawerLayout#mDragView}
+     */
+    private void moveDragViewTo(int left) {
+        offsetDragViewTo(left);
+        onDragViewPositionChanged(left);
+    }
+
+    /**
+     * offset {@link DrawerLayout#mDragView} to position,which is in the coordinate of
+     * {@link DrawerLayout#mDragViewLeft}
+     */
+    private void offsetDragViewTo(int position) {
+        final int target = toDragViewPosition(position);
+        if (isHorizontalDrag()) {
+            ViewCompat.offsetLeftAndRight(mDragView, target - mDragView.getLeft());
+        } else {
+            ViewCompat.offsetTopAndBottom(mDragView, target - mDragView.getTop());
+        }
+    }
+
+    /**
+     * smooth slide {@link DrawerLayout#mDragView} to edge
+     * drive by {@link ViewDragHelper#smoothSlideViewTo(View, int, int)} method
+     *
+     * @param toEdge slide to edge?
+     */
+    private void smoothSlideToEdge(boolean toEdge) {
+        stopSmoothSlide();
+        //TODO maybe padding values need be considered
+//        final int leftBound = getPaddingLeft();
+        int offset = 0;
+        if (!toEdge) {
+            offset = getDragExtent() - mDragMaxWidth;
+        } else {
+            offset = getDragExtent();
+        }
+
+        if (isSettleEngineUsed()) {
+            if (mViewDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE) {
+                //take over from user's drag or ViewDragHelper's settle
+                mViewDragHelper.abort();
+            }
+            if (isSettleEngineRunning() || mDragViewLeft != offset) {
+                startSettle(offset, 0);
+                return;
+            }
+        } else if (mViewDragHelper.smoothSlideViewTo(mDragView,
+                isHorizontalDrag() ? toDragViewPosition(offset) : mDragView.getLeft(),
+                isHorizontalDrag() ? mDragView.getTop() : toDragViewPosition(offset))) {
+            //force invalidate before next frame comes.
+            ViewCompat.postInvalidateOnAnimation(this);
+            return;
+        }
+        if (mMetrics != null && mDrawerState == STATE_IDLE) {
+            //already at the edge,nothing to record
+            mMetrics.endGesture();
+        }
+    }
+
+    /**
+     * set the engine settling drawer after release,{@link DrawerLayout#openDrawer()} and
+     * {@link DrawerLayout#closeDrawer()}
+     *
+     * @param engine e.g. {@link SpringSettleEngine},default is null to use the fixed duration
+     *               {@link android.widget.Scroller Scroller} of {@link ViewDragHelper}
+     */
+    public void setSettleEngine(SettleEngine engine) {
+        if (isSettleEngineRunning()) {
+            mSettleEngine.cancel();
+            updateDrawerState();
+        }
+        this.mSettleEngine = engine;
+    }
+
+    public SettleEngine getSettleEngine() {
+        return mSettleEngine;
+    }
+
+
+    /**
+     * the listener when {@link DrawerLayout#mDragView} inflated lazily
+     */
+    public interface OnDragViewInflatedListener {
+        /**
+         * @param dragView the view just inflated and added
+         */
+        void onDragViewInflated(View dragView);
+    }
+
+    /**
+     * the listener when adaptive quality steps down or up
+     */
+    public interface OnQualityChangeListener {
+        /**
+         * @param oldLevel level before change
+         * @param newLevel one of {@link DrawerLayout#QUALITY_FULL},{@link DrawerLayout#QUALITY_NO_EFFECTS},
+         *                 {@link DrawerLayout#QUALITY_THROTTLED_LISTENERS},{@link DrawerLayout#QUALITY_SIMPLE_SETTLE}
+         */
+        void onQualityChanged(@QualityLevel int oldLevel, @QualityLevel int newLevel);
+    }
+
+    /**
+     * the listener when closed {@link DrawerLayout#mDragView} is detached or attached again
+     *
+     * @see DrawerLayout#setDetachWhenClosed(boolean)
+     */
+    public interface OnDragViewDetachListener {
+        /**
+         * drawer is fully closed and hidden,pause its content here
+         */
+        void onDragViewDetached(View dragView);
+
+        /**
+         * drawer is going to be shown,resume its content here
+         */
+        void onDragViewAttached(View dragView);
+    }
+
+    /**
+     * the listener of drawer open/close and {@link DrawerLayout#getDrawerState()}
+     */
+    public interface DrawerStateListener {
+        /**
+         * drawer settled at fully opened position
+         */
+        void onDrawerOpened(View dragView);
+
+        /**
+         * drawer settled at fully closed position
+         */
+        void onDrawerClosed(View dragView);
+
+        /**
+         * @param newState one of {@link DrawerLayout#STATE_IDLE},{@link DrawerLayout#STATE_DRAGGING},
+         *                 {@link DrawerLayout#STATE_SETTLING}
+         */
+        void onDrawerStateChanged(int newState);
+    }
 
     /**
      * the listener when drag happened
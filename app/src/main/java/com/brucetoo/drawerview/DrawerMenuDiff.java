@@ -0,0 +1,123 @@
+package com.brucetoo.drawerview;
+
+import java.util.List;
+
+/**
+ * Difference between two item lists of {@link DrawerMenuView} by id,as insert/remove/change
+ * operations which turn old list into new list when dispatched in order.
+ * It's a longest common subsequence of ids,O(n*m) is fine for a menu and it's calculated off the main thread
+ */
+final class DrawerMenuDiff {
+
+    static final int OP_INSERT = 0;
+    static final int OP_REMOVE = 1;
+    static final int OP_CHANGE = 2;
+
+    //op,position,count
+    private int[] mOps = new int[3 * 8];
+    private int mOpCount;
+
+    private DrawerMenuDiff() {
+    }
+
+    static DrawerMenuDiff calculate(List<DrawerMenuItem> oldItems, List<DrawerMenuItem> newItems) {
+        final int oldSize = oldItems.size();
+        final int newSize = newItems.size();
+        final int columns = newSize + 1;
+        //lengths[i * columns + j] is LCS length of old[0,i) and new[0,j)
+        final int[] lengths = new int[(oldSize + 1) * columns];
+        for (int i = 1; i <= oldSize; i++) {
+            final long oldId = oldItems.get(i - 1).getId();
+            for (int j = 1; j <= newSize; j++) {
+                if (oldId == newItems.get(j - 1).getId()) {
+                    lengths[i * columns + j] = lengths[(i - 1) * columns + j - 1] + 1;
+                } else {
+                    lengths[i * columns + j] = Math.max(lengths[(i - 1) * columns + j], lengths[i * columns + j - 1]);
+                }
+            }
+        }
+
+        //walk back from the end,so positions of operations are not shifted by the ones after them
+        final DrawerMenuDiff diff = new DrawerMenuDiff();
+        int i = oldSize;
+        int j = newSize;
+        while (i > 0 || j > 0) {
+            if (i > 0 && j > 0 && oldItems.get(i - 1).getId() == newItems.get(j - 1).getId()) {
+                if (!oldItems.get(i - 1).isContentSame(newItems.get(j - 1))) {
+                    diff.add(OP_CHANGE, i - 1);
+                }
+                i--;
+                j--;
+            } else if (j > 0 && (i == 0 || lengths[i * columns + j - 1] >= lengths[(i - 1) * columns + j])) {
+                diff.add(OP_INSERT, i);
+                j--;
+            } else {
+                diff.add(OP_REMOVE, i - 1);
+                i--;
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * add an operation of one item,merged into the last one if they are next to each other
+     */
+    private void add(int op, int position) {
+        if (mOpCount > 0) {
+            final int last = (mOpCount - 1) * 3;
+            if (mOps[last] == op) {
+                if (op == OP_INSERT && mOps[last + 1] == position) {
+                    mOps[last + 2]++;
+                    return;
+                }
+                if (op != OP_INSERT && mOps[last + 1] == position + 1) {
+                    mOps[last + 1] = position;
+                    mOps[last + 2]++;
+                    return;
+                }
+            }
+        }
+        if (mOps.length < (mOpCount + 1) * 3) {
+            final int[] ops = new int[mOps.length * 2];
+            System.arraycopy(mOps, 0, ops, 0, mOpCount * 3);
+            mOps = ops;
+        }
+        mOps[mOpCount * 3] = op;
+        mOps[mOpCount * 3 + 1] = position;
+        mOps[mOpCount * 3 + 2] = 1;
+        mOpCount++;
+    }
+
+    /**
+     * @return true if lists are the same
+     */
+    boolean isEmpty() {
+        return mOpCount == 0;
+    }
+
+    void dispatchTo(Callback callback) {
+        for (int k = 0; k < mOpCount; k++) {
+            final int position = mOps[k * 3 + 1];
+            final int count = mOps[k * 3 + 2];
+            switch (mOps[k * 3]) {
+                case OP_INSERT:
+                    callback.onInserted(position, count);
+                    break;
+                case OP_REMOVE:
+                    callback.onRemoved(position, count);
+                    break;
+                default:
+                    callback.onChanged(position, count);
+                    break;
+            }
+        }
+    }
+
+    interface Callback {
+        void onInserted(int position, int count);
+
+        void onRemoved(int position, int count);
+
+        void onChanged(int position, int count);
+    }
+}
@@ -0,0 +1,53 @@
+package com.brucetoo.drawerview;
+
+import android.support.annotation.DrawableRes;
+
+/**
+ * Immutable item of {@link DrawerMenuView},id must be stable and unique in a menu
+ */
+public final class DrawerMenuItem {
+
+    private final long mId;
+    private final CharSequence mTitle;
+    @DrawableRes
+    private final int mIconResId;
+
+    public DrawerMenuItem(long id, CharSequence title) {
+        this(id, title, 0);
+    }
+
+    /**
+     * @param id        stable id,items with the same id are the same item across updates
+     * @param title     text of item
+     * @param iconResId icon at start of title,0 for none
+     */
+    public DrawerMenuItem(long id, CharSequence title, @DrawableRes int iconResId) {
+        mId = id;
+        mTitle = title;
+        mIconResId = iconResId;
+    }
+
+    public long getId() {
+        return mId;
+    }
+
+    public CharSequence getTitle() {
+        return mTitle;
+    }
+
+    @DrawableRes
+    public int getIconResId() {
+        return mIconResId;
+    }
+
+    /**
+     * @return true if other item looks the same,so its view doesn't need to be bound again
+     */
+    boolean isContentSame(DrawerMenuItem other) {
+        if (mIconResId != other.mIconResId) {
+            return false;
+        }
+        return mTitle == null ? other.mTitle == null
+                : other.mTitle != null && mTitle.toString().equals(other.mTitle.toString());
+    }
+}
@@ -0,0 +1,228 @@
+package com.brucetoo.drawerview;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.AttributeSet;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Menu list for the drawer of {@link DrawerLayout},a {@link RecyclerView} with stable ids.
+ * Item views are kept in a {@link RecyclerView.RecycledViewPool} shared by every DrawerMenuView
+ * of the process,they are inflated with application context so they can outlive the activity which
+ * created them,and the drawer of next screen opens without inflating its items again.
+ * Updates by {@link DrawerMenuView#setItems(List)} are diffed off the main thread
+ */
+public class DrawerMenuView extends RecyclerView {
+
+    private static final int VIEW_TYPE_ITEM = 0;
+    //enough to fill a tall drawer with some to spare
+    private static final int MAX_POOLED_ITEM_VIEWS = 24;
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    //only touched on main thread
+    private static RecycledViewPool sSharedPool;
+    private static Context sItemContext;
+    private static ExecutorService sDiffExecutor;
+
+    private final MenuAdapter mAdapter = new MenuAdapter();
+    private List<DrawerMenuItem> mItems = Collections.emptyList();
+    //results of older setItems() calls are dropped when they come back
+    private int mDiffGeneration;
+    private OnMenuItemClickListener mMenuItemClickListener;
+
+    public DrawerMenuView(Context context) {
+        this(context, null);
+    }
+
+    public DrawerMenuView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public DrawerMenuView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(context);
+        //give item views back to the shared pool when this menu leaves its window
+        layoutManager.setRecycleChildrenOnDetach(true);
+        setLayoutManager(layoutManager);
+        setHasFixedSize(true);
+        setRecycledViewPool(getSharedPool());
+        setAdapter(mAdapter);
+    }
+
+    /**
+     * @return view pool shared by all menus,main thread only
+     */
+    public static RecycledViewPool getSharedPool() {
+        if (sSharedPool == null) {
+            sSharedPool = new RecycledViewPool();
+            sSharedPool.setMaxRecycledViews(VIEW_TYPE_ITEM, MAX_POOLED_ITEM_VIEWS);
+        }
+        return sSharedPool;
+    }
+
+    /**
+     * pooled item views must not hold an activity,they are inflated with application context in app theme
+     */
+    private static Context getItemContext(Context context) {
+        if (sItemContext == null) {
+            final Context appContext = context.getApplicationContext();
+            sItemContext = new ContextThemeWrapper(appContext, appContext.getApplicationInfo().theme);
+        }
+        return sItemContext;
+    }
+
+    private static ExecutorService getDiffExecutor() {
+        if (sDiffExecutor == null) {
+            sDiffExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "DrawerMenuDiff");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return sDiffExecutor;
+    }
+
+    /**
+     * set items of menu,the first ones are shown right away,later ones are diffed with current items
+     * by id on a background thread and only changed items are bound again
+     *
+     * @param items items with stable and unique ids,copied so it can be changed after
+     */
+    public void setItems(List<DrawerMenuItem> items) {
+        final List<DrawerMenuItem> newItems = Collections.unmodifiableList(new ArrayList<>(items));
+        final List<DrawerMenuItem> oldItems = mItems;
+        final int generation = ++mDiffGeneration;
+        if (oldItems.isEmpty()) {
+            mItems = newItems;
+            mAdapter.notifyItemRangeInserted(0, newItems.size());
+            return;
+        }
+        getDiffExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final DrawerMenuDiff diff = DrawerMenuDiff.calculate(oldItems, newItems);
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mDiffGeneration) {
+                            return;//a newer update is on its way
+                        }
+                        mItems = newItems;
+                        diff.dispatchTo(mAdapter);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return items shown now,an update may still be diffing
+     */
+    public List<DrawerMenuItem> getItems() {
+        return mItems;
+    }
+
+    public void setOnMenuItemClickListener(OnMenuItemClickListener listener) {
+        this.mMenuItemClickListener = listener;
+    }
+
+    //static,so pooled item views keep no reference to the menu they were shown in
+    private static final OnClickListener sItemClickListener = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            if (v.getParent() instanceof DrawerMenuView) {
+                ((DrawerMenuView) v.getParent()).onItemClick(v);
+            }
+        }
+    };
+
+    private void onItemClick(View itemView) {
+        final int position = getChildAdapterPosition(itemView);
+        if (position != NO_POSITION && mMenuItemClickListener != null) {
+            mMenuItemClickListener.onMenuItemClick(mItems.get(position));
+        }
+    }
+
+    private class MenuAdapter extends Adapter<ItemHolder> implements DrawerMenuDiff.Callback {
+
+        MenuAdapter() {
+            setHasStableIds(true);
+        }
+
+        @Override
+        public ItemHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            TextView view = (TextView) LayoutInflater.from(getItemContext(parent.getContext()))
+                    .inflate(R.layout.drawer_menu_item, parent, false);
+            view.setOnClickListener(sItemClickListener);
+            return new ItemHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(ItemHolder holder, int position) {
+            final DrawerMenuItem item = mItems.get(position);
+            holder.title.setText(item.getTitle());
+            holder.title.setCompoundDrawablesWithIntrinsicBounds(item.getIconResId(), 0, 0, 0);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItems.size();
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return mItems.get(position).getId();
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return VIEW_TYPE_ITEM;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onChanged(int position, int count) {
+            notifyItemRangeChanged(position, count);
+        }
+    }
+
+    static final class ItemHolder extends ViewHolder {
+        final TextView title;
+
+        ItemHolder(TextView itemView) {
+            super(itemView);
+            title = itemView;
+        }
+    }
+
+    public interface OnMenuItemClickListener {
+        void onMenuItemClick(DrawerMenuItem item);
+    }
+}
@@ -0,0 +1,211 @@
+package com.brucetoo.drawerview;
+
+import android.content.Context;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+import java.io.PrintWriter;
+
+/**
+ * Opt-in frame timing and layout pass recorder of {@link DrawerLayout},
+ * enable it with {@link DrawerLayout#setMetricsEnabled(boolean)}.
+ * Every gesture(drag, settle, open/close, smoothSlideTo) is reported to
+ * {@link DrawerMetrics.Listener} and kept in a fixed size ring buffer which can be dumped.
+ * Frames are counted with {@link Choreographer}, so frame values are always 0 below JELLY_BEAN
+ */
+public final class DrawerMetrics {
+
+    public static final int GESTURE_NONE = -1;
+    public static final int GESTURE_DRAG = 0;
+    public static final int GESTURE_SETTLE = 1;
+    public static final int GESTURE_OPEN = 2;
+    public static final int GESTURE_CLOSE = 3;
+    public static final int GESTURE_SLIDE_TO = 4;
+
+    private static final int DEFAULT_CAPACITY = 32;
+    private static final long DEFAULT_FRAME_NANOS = 1000000000L / 60;
+
+    private final DrawerGestureMetrics[] mHistory;
+    private int mHistoryStart;
+    private int mHistoryCount;
+
+    private final DrawerGestureMetrics mCurrent = new DrawerGestureMetrics();
+    private final long mFrameIntervalNanos;
+    private DrawerFrameTicker mFrameTicker;
+    private Listener mListener;
+
+    DrawerMetrics(Context context) {
+        this(context, DEFAULT_CAPACITY);
+    }
+
+    DrawerMetrics(Context context, int capacity) {
+        mHistory = new DrawerGestureMetrics[capacity];
+        for (int i = 0; i < capacity; i++) {
+            mHistory[i] = new DrawerGestureMetrics();
+        }
+        mFrameIntervalNanos = getFrameIntervalNanos(context);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mFrameTicker = new DrawerFrameTicker(new DrawerFrameTicker.Callback() {
+                @Override
+                public void onFrame(long frameIntervalNanos) {
+                    DrawerMetrics.this.onFrame(frameIntervalNanos);
+                }
+            });
+        }
+    }
+
+    static long getFrameIntervalNanos(Context context) {
+        WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        if (wm != null && wm.getDefaultDisplay() != null) {
+            float refreshRate = wm.getDefaultDisplay().getRefreshRate();
+            if (refreshRate > 0) {
+                return (long) (1000000000L / refreshRate);
+            }
+        }
+        return DEFAULT_FRAME_NANOS;
+    }
+
+    /**
+     * set listener which is called on main thread when a gesture ends
+     */
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    /**
+     * @return count of gestures in ring buffer
+     */
+    public int getHistoryCount() {
+        return mHistoryCount;
+    }
+
+    /**
+     * copy a recorded gesture into out
+     *
+     * @param index 0 is the oldest one
+     * @param out   metrics to copy to
+     */
+    public void getHistory(int index, DrawerGestureMetrics out) {
+        if (index < 0 || index >= mHistoryCount) {
+            throw new IndexOutOfBoundsException("index " + index + " of " + mHistoryCount);
+        }
+        out.set(mHistory[(mHistoryStart + index) % mHistory.length]);
+    }
+
+    public void clearHistory() {
+        mHistoryStart = 0;
+        mHistoryCount = 0;
+    }
+
+    /**
+     * print all recorded gestures,oldest first
+     */
+    public void dump(PrintWriter writer) {
+        writer.println("DrawerMetrics: " + mHistoryCount + " gestures, frame interval "
+                + mFrameIntervalNanos / 1000000f + "ms");
+        for (int i = 0; i < mHistoryCount; i++) {
+            writer.print("  ");
+            writer.println(mHistory[(mHistoryStart + i) % mHistory.length]);
+        }
+    }
+
+    /**
+     * @return the gesture recording now,or {@link DrawerMetrics#GESTURE_NONE}
+     */
+    int getCurrentGesture() {
+        return mCurrent.gesture;
+    }
+
+    void beginGesture(int gesture) {
+        if (mCurrent.gesture != GESTURE_NONE) {
+            endGesture();
+        }
+        mCurrent.reset(gesture, System.nanoTime());
+        if (mFrameTicker != null) {
+            mFrameTicker.start();
+        }
+    }
+
+    void endGesture() {
+        if (mCurrent.gesture == GESTURE_NONE) {
+            return;
+        }
+        if (mFrameTicker != null) {
+            mFrameTicker.stop();
+        }
+        mCurrent.durationNanos = System.nanoTime() - mCurrent.startTimeNanos;
+
+        DrawerGestureMetrics slot;
+        if (mHistoryCount < mHistory.length) {
+            slot = mHistory[(mHistoryStart + mHistoryCount) % mHistory.length];
+            mHistoryCount++;
+        } else {//drop the oldest one
+            slot = mHistory[mHistoryStart];
+            mHistoryStart = (mHistoryStart + 1) % mHistory.length;
+        }
+        slot.set(mCurrent);
+        mCurrent.gesture = GESTURE_NONE;
+
+        if (mListener != null) {
+            mListener.onGestureMetrics(slot);
+        }
+    }
+
+    void onMeasure() {
+        if (mCurrent.gesture != GESTURE_NONE) {
+            mCurrent.measureCount++;
+        }
+    }
+
+    void onLayout() {
+        if (mCurrent.gesture != GESTURE_NONE) {
+            mCurrent.layoutCount++;
+        }
+    }
+
+    void addListenerTime(long nanos) {
+        if (mCurrent.gesture != GESTURE_NONE) {
+            mCurrent.listenerNanos += nanos;
+        }
+    }
+
+    void onFrame(long frameIntervalNanos) {
+        mCurrent.frameCount++;
+        if (frameIntervalNanos > mCurrent.worstFrameNanos) {
+            mCurrent.worstFrameNanos = frameIntervalNanos;
+        }
+        //a frame lasting 2.4 vsync periods dropped 1 frame,2.6 dropped 2
+        long missed = (frameIntervalNanos + mFrameIntervalNanos / 2) / mFrameIntervalNanos - 1;
+        if (missed > 0) {
+            mCurrent.droppedFrames += missed;
+        }
+    }
+
+    static String gestureToString(int gesture) {
+        switch (gesture) {
+            case GESTURE_DRAG:
+                return "drag";
+            case GESTURE_SETTLE:
+                return "settle";
+            case GESTURE_OPEN:
+                return "open";
+            case GESTURE_CLOSE:
+                return "close";
+            case GESTURE_SLIDE_TO:
+                return "slideTo";
+            default:
+                return "none";
+        }
+    }
+
+    /**
+     * callback of recorded gesture
+     */
+    public interface Listener {
+        /**
+         * @param metrics reused instance,copy it if you need to keep it
+         */
+        void onGestureMetrics(DrawerGestureMetrics metrics);
+    }
+}
@@ -0,0 +1,118 @@
+package com.brucetoo.drawerview;
+
+/**
+ * Drawer state published by {@link DrawerLayout} for consumers on other threads,like a GL renderer
+ * of content or an analytics sampler,get it with {@link DrawerLayout#getStateSnapshot()} on main thread
+ * and hand it to them.
+ * It's a sequence lock:main thread is the only writer,readers on any thread never lock,never allocate
+ * and never hold up the writer,they read again if a publish happened in the middle of their read
+ */
+public final class DrawerStateSnapshot {
+
+    //a reader spinning this long is racing a busy writer,let it run
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    //odd while a publish is in progress,version is half of it
+    private volatile int mSequence;
+    private volatile int mPosition;
+    private volatile float mRatio;
+    private volatile int mState;
+    private volatile int mDragMaxWidth;
+    private volatile int mEdge;
+    private volatile long mTimeMillis;
+
+    DrawerStateSnapshot() {
+    }
+
+    /**
+     * publish a new state,main thread only.nothing is published if only time changed
+     */
+    void publish(int position, float ratio, int state, int dragMaxWidth, int edge, long timeMillis) {
+        if (position == mPosition && ratio == mRatio && state == mState
+                && dragMaxWidth == mDragMaxWidth && edge == mEdge && mSequence != 0) {
+            return;
+        }
+        final int sequence = mSequence;
+        mSequence = sequence + 1;
+        mPosition = position;
+        mRatio = ratio;
+        mState = state;
+        mDragMaxWidth = dragMaxWidth;
+        mEdge = edge;
+        mTimeMillis = timeMillis;
+        mSequence = sequence + 2;
+    }
+
+    /**
+     * @return version of the latest published state,compare it with {@link State#version}
+     * to skip a read when nothing changed.0 if nothing is published yet
+     */
+    public int getVersion() {
+        return mSequence >>> 1;
+    }
+
+    /**
+     * read the latest published state into out,values always come from the same publish
+     *
+     * @param out holder to fill,reuse it across reads
+     */
+    public void read(State out) {
+        int spins = 0;
+        while (true) {
+            final int sequence = mSequence;
+            if ((sequence & 1) == 0) {
+                out.position = mPosition;
+                out.ratio = mRatio;
+                out.state = mState;
+                out.dragMaxWidth = mDragMaxWidth;
+                out.edge = mEdge;
+                out.timeMillis = mTimeMillis;
+                if (sequence == mSequence) {
+                    out.version = sequence >>> 1;
+                    return;
+                }
+            }
+            if (++spins >= SPINS_BEFORE_YIELD) {
+                spins = 0;
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * caller owned holder of a read
+     */
+    public static final class State {
+        /**
+         * version of publish the values come from
+         */
+        public int version;
+        /**
+         * left of dragView,top for top/bottom drawers
+         */
+        public int position;
+        /**
+         * shown part of drawer,0 when closed,1 when opened
+         */
+        public float ratio;
+        /**
+         * one of {@link DrawerLayout#STATE_IDLE},{@link DrawerLayout#STATE_DRAGGING},
+         * {@link DrawerLayout#STATE_SETTLING}
+         */
+        public int state;
+        /**
+         * size of drawer along its drag direction
+         */
+        public int dragMaxWidth;
+        /**
+         * edge of the active drawer,one of {@link DrawerLayout#EDGE_LEFT},{@link DrawerLayout#EDGE_RIGHT},
+         * {@link DrawerLayout#EDGE_TOP},{@link DrawerLayout#EDGE_BOTTOM}
+         */
+        public int edge;
+        /**
+         * {@link android.view.animation.AnimationUtils#currentAnimationTimeMillis()} of publish,
+         * frame time when published once per frame
+         */
+        public long timeMillis;
+    }
+}
@@ -0,0 +1,234 @@
+package com.brucetoo.drawerview;
+
+import android.support.v4.view.MotionEventCompat;
+import android.view.MotionEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compact binary trace of touch events received by {@link DrawerLayout} and the drag position/state
+ * timeline they lead to,record it with {@link DrawerLayout#setTouchTrace(DrawerTouchTrace)}.
+ * Only the first pointer is recorded,with all historical samples of move events.
+ * <p>
+ * Format is big endian,times are milliseconds from start of recording:
+ * <pre>
+ * header:   int magic,byte version,short width,short height,short dragMaxWidth,byte edge
+ * event:    byte 1,byte action,int time,byte historySize,(int time,float x,float y) * historySize,float x,float y
+ * position: byte 2,int time,int position
+ * state:    byte 3,int time,byte state
+ * </pre>
+ * position is {@link DrawerLayout}'s drag position as if it's a right drawer:width when closed,
+ * width - dragMaxWidth when opened
+ */
+public final class DrawerTouchTrace {
+
+    public static final int RECORD_EVENT = 1;
+    public static final int RECORD_POSITION = 2;
+    public static final int RECORD_STATE = 3;
+
+    private static final int MAGIC = 0x44525454;//DRTT
+    private static final int VERSION = 1;
+    private static final int DEFAULT_MAX_BYTES = 256 * 1024;
+    private static final int MAX_HISTORY = 255;
+
+    private final int mMaxBytes;
+    private byte[] mBuffer = new byte[1024];
+    private int mSize;
+    private long mStartTime;
+    private boolean mIsFull;
+
+    public DrawerTouchTrace() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes recording stops when trace reaches this size
+     */
+    public DrawerTouchTrace(int maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * @return true if recording stopped because trace reached its max size
+     */
+    public boolean isFull() {
+        return mIsFull;
+    }
+
+    /**
+     * @return size of trace in bytes
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public byte[] toByteArray() {
+        final byte[] bytes = new byte[mSize];
+        System.arraycopy(mBuffer, 0, bytes, 0, mSize);
+        return bytes;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(mBuffer, 0, mSize);
+    }
+
+    /**
+     * start a new recording,anything recorded before is dropped
+     */
+    void begin(int width, int height, int dragMaxWidth, int edge, long time) {
+        mSize = 0;
+        mIsFull = false;
+        mStartTime = time;
+        putInt(MAGIC);
+        putByte(VERSION);
+        putShort(width);
+        putShort(height);
+        putShort(dragMaxWidth);
+        putByte(edge);
+    }
+
+    void recordEvent(MotionEvent event) {
+        final int historySize = Math.min(event.getHistorySize(), MAX_HISTORY);
+        if (!ensureCapacity(7 + historySize * 12 + 8)) {
+            return;
+        }
+        putByte(RECORD_EVENT);
+        putByte(MotionEventCompat.getActionMasked(event));
+        putInt((int) (event.getEventTime() - mStartTime));
+        putByte(historySize);
+        //keep the latest samples if there are too many
+        for (int i = event.getHistorySize() - historySize; i < event.getHistorySize(); i++) {
+            putInt((int) (event.getHistoricalEventTime(i) - mStartTime));
+            putFloat(event.getHistoricalX(i));
+            putFloat(event.getHistoricalY(i));
+        }
+        putFloat(event.getX());
+        putFloat(event.getY());
+    }
+
+    void recordPosition(long time, int position) {
+        if (ensureCapacity(9)) {
+            putByte(RECORD_POSITION);
+            putInt((int) (time - mStartTime));
+            putInt(position);
+        }
+    }
+
+    void recordState(long time, int state) {
+        if (ensureCapacity(6)) {
+            putByte(RECORD_STATE);
+            putInt((int) (time - mStartTime));
+            putByte(state);
+        }
+    }
+
+    private boolean ensureCapacity(int bytes) {
+        if (mIsFull || mSize + bytes > mMaxBytes) {
+            mIsFull = true;
+            return false;
+        }
+        if (mSize + bytes > mBuffer.length) {
+            final byte[] buffer = new byte[Math.min(Math.max(mBuffer.length * 2, mSize + bytes), mMaxBytes)];
+            System.arraycopy(mBuffer, 0, buffer, 0, mSize);
+            mBuffer = buffer;
+        }
+        return true;
+    }
+
+    private void putByte(int value) {
+        mBuffer[mSize++] = (byte) value;
+    }
+
+    private void putShort(int value) {
+        mBuffer[mSize++] = (byte) (value >>> 8);
+        mBuffer[mSize++] = (byte) value;
+    }
+
+    private void putInt(int value) {
+        mBuffer[mSize++] = (byte) (value >>> 24);
+        mBuffer[mSize++] = (byte) (value >>> 16);
+        mBuffer[mSize++] = (byte) (value >>> 8);
+        mBuffer[mSize++] = (byte) value;
+    }
+
+    private void putFloat(float value) {
+        putInt(Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * read a trace written by {@link DrawerTouchTrace#toByteArray()}
+     */
+    public static void read(byte[] trace, Visitor visitor) throws IOException {
+        read(new ByteArrayInputStream(trace), visitor);
+    }
+
+    /**
+     * read a trace written by {@link DrawerTouchTrace#writeTo(OutputStream)},records are visited in order
+     */
+    public static void read(InputStream in, Visitor visitor) throws IOException {
+        final DataInputStream input = new DataInputStream(in);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a drawer touch trace!");
+        }
+        final int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        visitor.onHeader(input.readUnsignedShort(), input.readUnsignedShort(),
+                input.readUnsignedShort(), input.readUnsignedByte());
+        while (true) {
+            final int type = input.read();
+            if (type == -1) {
+                return;
+            }
+            switch (type) {
+                case RECORD_EVENT:
+                    final int action = input.readUnsignedByte();
+                    final int time = input.readInt();
+                    final int historySize = input.readUnsignedByte();
+                    for (int i = 0; i < historySize; i++) {
+                        visitor.onHistoricalSample(input.readInt(), input.readFloat(), input.readFloat());
+                    }
+                    visitor.onEvent(action, time, input.readFloat(), input.readFloat());
+                    break;
+                case RECORD_POSITION:
+                    visitor.onPosition(input.readInt(), input.readInt());
+                    break;
+                case RECORD_STATE:
+                    visitor.onState(input.readInt(), input.readUnsignedByte());
+                    break;
+                default:
+                    throw new IOException("Broken trace,unknown record " + type);
+            }
+        }
+    }
+
+    /**
+     * callback of {@link DrawerTouchTrace#read(InputStream, Visitor)},times are milliseconds from start of recording
+     */
+    public interface Visitor {
+        void onHeader(int width, int height, int dragMaxWidth, int edge);
+
+        /**
+         * a historical sample of the next {@link Visitor#onEvent(int, long, float, float)},oldest first
+         */
+        void onHistoricalSample(long time, float x, float y);
+
+        /**
+         * @param action masked action of event
+         */
+        void onEvent(int action, long time, float x, float y);
+
+        void onPosition(long time, int position);
+
+        /**
+         * @param state one of {@link DrawerLayout#STATE_IDLE},{@link DrawerLayout#STATE_DRAGGING},
+         *              {@link DrawerLayout#STATE_SETTLING}
+         */
+        void onState(long time, int state);
+    }
+}
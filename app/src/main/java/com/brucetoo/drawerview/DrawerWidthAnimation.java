@@ -0,0 +1,75 @@
+package com.brucetoo.drawerview;
+
+/**
+ * Reusable width animation of {@link DrawerLayout#smoothSlideTo(int, long)},
+ * stepped from {@link DrawerLayout#computeScroll()} with primitive values only,
+ * so it never allocates per frame.
+ * Starting it while running retargets it from the current value.
+ */
+final class DrawerWidthAnimation {
+
+    private boolean mRunning;
+    private int mFrom;
+    private int mTo;
+    private int mValue;
+    private long mStartTime;
+    private long mDuration;
+
+    /**
+     * @param from     start width
+     * @param to       end width
+     * @param duration duration in millis
+     * @param now      animation time in millis
+     */
+    void start(int from, int to, long duration, long now) {
+        mFrom = from;
+        mTo = to;
+        mValue = from;
+        mStartTime = now;
+        mDuration = Math.max(duration, 0);
+        mRunning = true;
+    }
+
+    /**
+     * @param now animation time in millis
+     * @return true if it's still running,false if it reached the end in this frame
+     */
+    boolean update(long now) {
+        if (!mRunning) {
+            return false;
+        }
+        final long elapsed = now - mStartTime;
+        if (elapsed >= mDuration) {
+            mValue = mTo;
+            mRunning = false;
+            return false;
+        }
+        final float fraction = elapsed <= 0 ? 0 : (float) elapsed / mDuration;
+        //same curve as the default interpolator of ValueAnimator
+        final float interpolated = (float) (Math.cos((fraction + 1) * Math.PI) / 2.0f) + 0.5f;
+        mValue = mFrom + Math.round((mTo - mFrom) * interpolated);
+        return true;
+    }
+
+    void cancel() {
+        mRunning = false;
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * @return current width
+     */
+    int getValue() {
+        return mValue;
+    }
+
+    /**
+     * @return end width
+     */
+    int getTarget() {
+        return mTo;
+    }
+}
@@ -4,11 +4,6 @@ import android.graphics.Color;
 import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
 import android.view.View;
-import android.widget.AdapterView;
-import android.widget.ListView;
-
-import com.joanzapata.android.BaseAdapterHelper;
-import com.joanzapata.android.QuickAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,7 +12,7 @@ public class MainActivity extends AppCompatActivity {
 
 
     private DrawerLayout mDrawerLayout;
-    private ListView mListView;
+    private DrawerMenuView mMenuView;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,18 +28,12 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
-        mListView = (ListView) findViewById(R.id.list_view);
-        mListView.setAdapter(new QuickAdapter<String>(this, R.layout.list_item, getListData()) {
-            @Override
-            protected void convert(BaseAdapterHelper helper, String item) {
-                helper.setText(R.id.text_item, item);
-            }
-        });
-
-        mListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+        mMenuView = (DrawerMenuView) findViewById(R.id.menu_view);
+        mMenuView.setItems(getMenuItems());
+        mMenuView.setOnMenuItemClickListener(new DrawerMenuView.OnMenuItemClickListener() {
             @Override
-            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                if ((position + 1) % 2 == 0) {
+            public void onMenuItemClick(DrawerMenuItem item) {
+                if ((item.getId() + 1) % 2 == 0) {
                     mDrawerLayout.smoothSlideTo((int) getResources().getDimension(R.dimen.drawer_bigger_width),500);
                 } else {
                     mDrawerLayout.smoothSlideTo((int) getResources().getDimension(R.dimen.drawer_smaller_width),500);
@@ -53,29 +42,17 @@ public class MainActivity extends AppCompatActivity {
         });
 
 
-        mDrawerLayout.setDragRatioListener(new DrawerLayout.DragRatioListener() {
-            @Override
-            public void onDragRatioChange(float ratio, View dragView) {
-                //抛出dragView 在此可以做任意view动画
-                dragView.setAlpha(ratio);
-                dragView.setPivotX(dragView.getWidth() / 2);
-                dragView.setPivotY(dragView.getHeight() / 2);
-                dragView.setScaleX(ratio);
-                dragView.setScaleY(ratio);
-            }
-        });
-
         mDrawerLayout.setDragMaxWidth((int) getResources().getDimension(R.dimen.drawer_max_width));
         mDrawerLayout.setMaskEnable(true);
         mDrawerLayout.setMaskColor(Color.parseColor("#77000000"));
     }
 
-    private List<String> getListData() {
-        ArrayList data = new ArrayList();
+    private List<DrawerMenuItem> getMenuItems() {
+        List<DrawerMenuItem> items = new ArrayList<>();
         for (int i = 0; i < 20; i++) {
-            data.add("drawer text:" + i);
+            items.add(new DrawerMenuItem(i, "drawer text:" + i));
         }
-        return data;
+        return items;
     }
 
     @Override
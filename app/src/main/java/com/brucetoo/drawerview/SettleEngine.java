@@ -0,0 +1,47 @@
+package com.brucetoo.drawerview;
+
+/**
+ * Drives {@link DrawerLayout} drawer to its open or close position after release,
+ * {@link DrawerLayout#openDrawer()} and {@link DrawerLayout#closeDrawer()}.
+ * It's stepped from {@link DrawerLayout#computeScroll()} once per frame,
+ * so implementations must not allocate in {@link SettleEngine#update(long)}.
+ *
+ * @see DrawerLayout#setSettleEngine(SettleEngine)
+ * @see SpringSettleEngine
+ */
+public interface SettleEngine {
+
+    /**
+     * start settling,or retarget if it's running
+     *
+     * @param position   current position in pixels
+     * @param velocity   current velocity in pixels per second
+     * @param target     final position in pixels
+     * @param timeMillis animation time of now,see {@link android.view.animation.AnimationUtils#currentAnimationTimeMillis()}
+     */
+    void start(float position, float velocity, float target, long timeMillis);
+
+    /**
+     * advance to the time
+     *
+     * @param timeMillis animation time of this frame
+     * @return true if it's still running
+     */
+    boolean update(long timeMillis);
+
+    /**
+     * stop at current position
+     */
+    void cancel();
+
+    boolean isRunning();
+
+    float getPosition();
+
+    /**
+     * @return velocity in pixels per second
+     */
+    float getVelocity();
+
+    float getTarget();
+}
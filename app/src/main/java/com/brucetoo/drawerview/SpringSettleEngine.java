@@ -0,0 +1,145 @@
+package com.brucetoo.drawerview;
+
+/**
+ * {@link SettleEngine} with damped spring physics,the velocity of a fling or a running settle
+ * is kept when it's started again with a new target,so the motion never jumps.
+ * The spring is solved analytically,so the result doesn't depend on frame rate.
+ */
+public class SpringSettleEngine implements SettleEngine {
+
+    /**
+     * no bouncing,reach target as fast as possible
+     */
+    public static final float DAMPING_RATIO_CRITICAL = 1f;
+    public static final float DEFAULT_STIFFNESS = 800f;
+
+    //stop when both distance to target and velocity are small enough
+    private static final float POSITION_THRESHOLD = 0.5f;
+    private static final float VELOCITY_THRESHOLD = 30f;
+    //frames longer than it are treated as it,in case of a long pause
+    private static final long MAX_FRAME_MILLIS = 64;
+
+    private double mNaturalFreq;
+    private double mDampingRatio;
+
+    private boolean mRunning;
+    private float mPosition;
+    private float mVelocity;
+    private float mTarget;
+    private long mLastTimeMillis;
+
+    public SpringSettleEngine() {
+        this(DEFAULT_STIFFNESS, DAMPING_RATIO_CRITICAL);
+    }
+
+    /**
+     * @param stiffness    stiffness of spring,higher is faster
+     * @param dampingRatio 1 is critical damping,below 1 bounces around target
+     */
+    public SpringSettleEngine(float stiffness, float dampingRatio) {
+        setStiffness(stiffness);
+        setDampingRatio(dampingRatio);
+    }
+
+    public void setStiffness(float stiffness) {
+        if (stiffness <= 0) {
+            throw new IllegalArgumentException("Spring stiffness must be positive!");
+        }
+        mNaturalFreq = Math.sqrt(stiffness);
+    }
+
+    public void setDampingRatio(float dampingRatio) {
+        if (dampingRatio < 0) {
+            throw new IllegalArgumentException("Damping ratio can't be negative!");
+        }
+        mDampingRatio = dampingRatio;
+    }
+
+    @Override
+    public void start(float position, float velocity, float target, long timeMillis) {
+        mPosition = position;
+        mVelocity = velocity;
+        mTarget = target;
+        mLastTimeMillis = timeMillis;
+        mRunning = true;
+    }
+
+    @Override
+    public boolean update(long timeMillis) {
+        if (!mRunning) {
+            return false;
+        }
+        final long deltaMillis = Math.min(timeMillis - mLastTimeMillis, MAX_FRAME_MILLIS);
+        mLastTimeMillis = timeMillis;
+        if (deltaMillis <= 0) {
+            return true;
+        }
+        final double t = deltaMillis / 1000d;
+        final double w = mNaturalFreq;
+        final double z = mDampingRatio;
+        final double x0 = mPosition - mTarget;
+        final double v0 = mVelocity;
+        double x;
+        double v;
+        if (z > 1) {//over damped
+            final double root = w * Math.sqrt(z * z - 1);
+            final double gammaPlus = -z * w + root;
+            final double gammaMinus = -z * w - root;
+            final double coeffB = (gammaMinus * x0 - v0) / (gammaMinus - gammaPlus);
+            final double coeffA = x0 - coeffB;
+            final double expMinus = Math.exp(gammaMinus * t);
+            final double expPlus = Math.exp(gammaPlus * t);
+            x = coeffA * expMinus + coeffB * expPlus;
+            v = coeffA * gammaMinus * expMinus + coeffB * gammaPlus * expPlus;
+        } else if (z == 1) {//critically damped
+            final double coeffB = v0 + w * x0;
+            final double exp = Math.exp(-w * t);
+            x = (x0 + coeffB * t) * exp;
+            v = coeffB * exp - w * x;
+        } else {//under damped
+            final double dampedFreq = w * Math.sqrt(1 - z * z);
+            final double sinCoeff = (z * w * x0 + v0) / dampedFreq;
+            final double exp = Math.exp(-z * w * t);
+            final double cos = Math.cos(dampedFreq * t);
+            final double sin = Math.sin(dampedFreq * t);
+            x = exp * (x0 * cos + sinCoeff * sin);
+            v = -z * w * x + exp * dampedFreq * (sinCoeff * cos - x0 * sin);
+        }
+
+        if (Math.abs(x) < POSITION_THRESHOLD && Math.abs(v) < VELOCITY_THRESHOLD) {
+            mPosition = mTarget;
+            mVelocity = 0;
+            mRunning = false;
+        } else {
+            mPosition = (float) (mTarget + x);
+            mVelocity = (float) v;
+        }
+        return mRunning;
+    }
+
+    @Override
+    public void cancel() {
+        mRunning = false;
+        mVelocity = 0;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    @Override
+    public float getPosition() {
+        return mPosition;
+    }
+
+    @Override
+    public float getVelocity() {
+        return mVelocity;
+    }
+
+    @Override
+    public float getTarget() {
+        return mTarget;
+    }
+}
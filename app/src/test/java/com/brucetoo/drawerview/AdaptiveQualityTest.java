@@ -0,0 +1,87 @@
+package com.brucetoo.drawerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Level steps of {@link AdaptiveQuality}
+ */
+public class AdaptiveQualityTest {
+
+    private static final long VSYNC = 16666667;
+    private static final int MAX_LEVEL = DrawerLayout.QUALITY_SIMPLE_SETTLE;
+
+    private AdaptiveQuality mQuality;
+    private int mChanges;
+    private int mLastOldLevel = -1;
+
+    @Before
+    public void setUp() throws Exception {
+        mQuality = new AdaptiveQuality(VSYNC, MAX_LEVEL, new AdaptiveQuality.Listener() {
+            @Override
+            public void onLevelChanged(int oldLevel, int newLevel) {
+                mChanges++;
+                mLastOldLevel = oldLevel;
+            }
+        });
+    }
+
+    @Test
+    public void onFrame_healthyFrames_keepFullQuality() throws Exception {
+        frames(VSYNC, 500);
+
+        assertEquals(DrawerLayout.QUALITY_FULL, mQuality.getLevel());
+        assertEquals(0, mChanges);
+    }
+
+    @Test
+    public void onFrame_droppedFrames_stepDownOneStageAtATime() throws Exception {
+        //each frame takes 2 vsync periods,so each one drops 1 frame
+        frames(VSYNC * 2, AdaptiveQuality.STEP_DOWN_DROPPED_FRAMES);
+        assertEquals(DrawerLayout.QUALITY_NO_EFFECTS, mQuality.getLevel());
+        assertEquals(DrawerLayout.QUALITY_FULL, mLastOldLevel);
+
+        frames(VSYNC * 2, AdaptiveQuality.STEP_DOWN_DROPPED_FRAMES * 10);
+        assertEquals(MAX_LEVEL, mQuality.getLevel());
+        assertEquals(MAX_LEVEL, mChanges);
+    }
+
+    @Test
+    public void onFrame_sparseDrops_doNotStepDown() throws Exception {
+        //one drop per window never adds up to a step
+        for (int i = 0; i < 10; i++) {
+            frames(VSYNC * 2, 1);
+            frames(VSYNC, AdaptiveQuality.DROP_WINDOW_FRAMES);
+        }
+
+        assertEquals(DrawerLayout.QUALITY_FULL, mQuality.getLevel());
+    }
+
+    @Test
+    public void onFrame_healthyRun_restoresOneStage() throws Exception {
+        frames(VSYNC * 2, AdaptiveQuality.STEP_DOWN_DROPPED_FRAMES * 2);
+        assertEquals(DrawerLayout.QUALITY_THROTTLED_LISTENERS, mQuality.getLevel());
+
+        frames(VSYNC, AdaptiveQuality.STEP_UP_HEALTHY_FRAMES - 1);
+        assertEquals(DrawerLayout.QUALITY_THROTTLED_LISTENERS, mQuality.getLevel());
+        frames(VSYNC, 1);
+        assertEquals(DrawerLayout.QUALITY_NO_EFFECTS, mQuality.getLevel());
+        frames(VSYNC, AdaptiveQuality.STEP_UP_HEALTHY_FRAMES);
+        assertEquals(DrawerLayout.QUALITY_FULL, mQuality.getLevel());
+    }
+
+    @Test
+    public void onFrame_firstFrameOfMotion_isIgnored() throws Exception {
+        frames(0, 100);
+
+        assertEquals(DrawerLayout.QUALITY_FULL, mQuality.getLevel());
+    }
+
+    private void frames(long interval, int count) {
+        for (int i = 0; i < count; i++) {
+            mQuality.onFrame(interval);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.brucetoo.drawerview;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Headless frame loop driving {@link DrawerLayout} of activity_main on the JVM.
+ * A frame is what ViewRootImpl does on device:advance clock by one vsync(runs posted callbacks),
+ * dispatch input,computeScroll,measure/layout if requested and draw.
+ * Each scenario is warmed up first,like JMH does,then measured for some iterations.
+ * CPU time is only reported,it depends on the machine.Allocation is only counted on JVMs
+ * supporting it(HotSpot and the like)
+ */
+final class DrawerBenchmark {
+
+    static final long FRAME_MILLIS = 16;
+    //a scenario never takes longer than this,otherwise it's stuck
+    static final int MAX_FRAMES = 600;
+
+    private final ThreadMXBean mThreadBean = ManagementFactory.getThreadMXBean();
+    private final long mThreadId = Thread.currentThread().getId();
+    private final boolean mIsAllocationCounted;
+
+    private final View mRoot;
+    private final CountingDrawerLayout mDrawer;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mDrawerSize;
+    private final MotionEvent[] mFrameEvents = new MotionEvent[1];
+
+    //counters of the iteration being measured
+    private boolean mIsMeasuring;
+    private int mFrames;
+    private int mEvents;
+    private long mCpuNanos;
+    private long mEventCpuNanos;
+    private long mAllocatedBytes;
+    private long mReadCost;
+    private long mDownTime;
+
+    DrawerBenchmark() {
+        Activity activity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+        LayoutInflater inflater = LayoutInflater.from(activity).cloneInContext(activity);
+        inflater.setFactory(new LayoutInflater.Factory() {
+            @Override
+            public View onCreateView(String name, Context context, AttributeSet attrs) {
+                if (DrawerLayout.class.getName().equals(name)) {
+                    return new CountingDrawerLayout(context, attrs);
+                }
+                return null;
+            }
+        });
+        activity.setContentView(inflater.inflate(R.layout.activity_main, null));
+        mDrawer = (CountingDrawerLayout) activity.findViewById(R.id.drawer_layout);
+        mRoot = mDrawer.getRootView();
+
+        DisplayMetrics metrics = activity.getResources().getDisplayMetrics();
+        mWidth = metrics.widthPixels;
+        mHeight = metrics.heightPixels;
+        mDrawerSize = activity.getResources().getDimensionPixelSize(R.dimen.drawer_max_width);
+        layoutIfRequested();
+
+        mIsAllocationCounted = AllocationCounter.isSupported();
+        if (mIsAllocationCounted) {
+            //reading allocated bytes may allocate itself,measure that first
+            long before = AllocationCounter.get(mThreadId);
+            mReadCost = AllocationCounter.get(mThreadId) - before;
+        }
+    }
+
+    DrawerLayout getDrawer() {
+        return mDrawer;
+    }
+
+    int getWidth() {
+        return mDrawer.getWidth();
+    }
+
+    int getHeight() {
+        return mDrawer.getHeight();
+    }
+
+    /**
+     * configured size of drawer,dragView has no bounds while it's closed and detached
+     */
+    int getDrawerSize() {
+        return mDrawerSize;
+    }
+
+    /**
+     * run scenario warmup times without recording,then iterations times recorded
+     */
+    Result run(String name, Scenario scenario, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            runOnce(scenario);
+        }
+        Result result = new Result(name, iterations, mIsAllocationCounted);
+        for (int i = 0; i < iterations; i++) {
+            scenario.reset(this);
+            settle();
+            final int measureCount = mDrawer.measureCount;
+            final int layoutCount = mDrawer.layoutCount;
+            mFrames = 0;
+            mEvents = 0;
+            mCpuNanos = 0;
+            mEventCpuNanos = 0;
+            mAllocatedBytes = 0;
+            mIsMeasuring = true;
+            scenario.run(this);
+            mIsMeasuring = false;
+            result.add(mFrames, mDrawer.measureCount - measureCount, mDrawer.layoutCount - layoutCount,
+                    mCpuNanos, mAllocatedBytes, mEvents, mEventCpuNanos);
+        }
+        System.out.println(result);
+        return result;
+    }
+
+    private void runOnce(Scenario scenario) {
+        scenario.reset(this);
+        settle();
+        scenario.run(this);
+    }
+
+    /**
+     * run one frame with an optional input event
+     */
+    void frame(MotionEvent event) {
+        mFrameEvents[0] = event;
+        frame(mFrameEvents, event == null ? 0 : 1);
+    }
+
+    /**
+     * run one frame,events are dispatched in a batch at the start of it like Choreographer does
+     */
+    void frame(MotionEvent[] events, int count) {
+        ShadowLooper.idleMainLooper(FRAME_MILLIS);
+        //Robolectric's shadow canvas records every draw call,a fresh one per frame keeps that history
+        //from growing with frame count
+        final Canvas canvas = new Canvas(Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888));
+        final long cpuStart = mThreadBean.getCurrentThreadCpuTime();
+        final long allocStart = mIsAllocationCounted ? AllocationCounter.get(mThreadId) : 0;
+        for (int i = 0; i < count; i++) {
+            final long eventStart = mThreadBean.getCurrentThreadCpuTime();
+            mDrawer.dispatchTouchEvent(events[i]);
+            if (mIsMeasuring) {
+                mEvents++;
+                mEventCpuNanos += mThreadBean.getCurrentThreadCpuTime() - eventStart;
+            }
+        }
+        mDrawer.computeScroll();
+        layoutIfRequested();
+        //recording of draw calls allocates,so drawing is only timed,not allocation counted
+        final long allocEnd = mIsAllocationCounted ? AllocationCounter.get(mThreadId) : 0;
+        mDrawer.draw(canvas);
+        final long cpuEnd = mThreadBean.getCurrentThreadCpuTime();
+        if (mIsMeasuring) {
+            mFrames++;
+            mCpuNanos += cpuEnd - cpuStart;
+            mAllocatedBytes += Math.max(0, allocEnd - allocStart - mReadCost);
+        }
+    }
+
+    /**
+     * run frames until drawer is idle and nothing waits for layout
+     *
+     * @return frames it took
+     */
+    int settle() {
+        int frames = 0;
+        do {
+            frame(null);
+            if (++frames > MAX_FRAMES) {
+                throw new AssertionError("drawer didn't settle in " + MAX_FRAMES + " frames");
+            }
+        } while (mDrawer.getDrawerState() != DrawerLayout.STATE_IDLE || mRoot.isLayoutRequested());
+        return frames;
+    }
+
+    /**
+     * drag with one pointer from (fromX,fromY) to (toX,toY) in frames,one move per frame,then release
+     */
+    void drag(float fromX, float fromY, float toX, float toY, int frames) {
+        mDownTime = SystemClock.uptimeMillis();
+        frame(obtain(MotionEvent.ACTION_DOWN, fromX, fromY));
+        for (int i = 1; i <= frames; i++) {
+            frame(obtain(MotionEvent.ACTION_MOVE,
+                    fromX + (toX - fromX) * i / frames, fromY + (toY - fromY) * i / frames));
+        }
+        frame(obtain(MotionEvent.ACTION_UP, toX, toY));
+    }
+
+    /**
+     * events are created before their frame starts,they are input not drawer work
+     */
+    private MotionEvent obtain(int action, float x, float y) {
+        return MotionEvent.obtain(mDownTime, SystemClock.uptimeMillis() + FRAME_MILLIS, action, x, y, 0);
+    }
+
+    private void layoutIfRequested() {
+        if (mRoot.isLayoutRequested()) {
+            mRoot.measure(View.MeasureSpec.makeMeasureSpec(mWidth, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(mHeight, View.MeasureSpec.EXACTLY));
+            mRoot.layout(0, 0, mWidth, mHeight);
+        }
+    }
+
+    /**
+     * scripted interaction with drawer
+     */
+    interface Scenario {
+        /**
+         * put drawer at start state,not measured
+         */
+        void reset(DrawerBenchmark benchmark);
+
+        void run(DrawerBenchmark benchmark);
+    }
+
+    /**
+     * statistics of measured iterations of a scenario
+     */
+    static final class Result {
+        final String name;
+        final int iterations;
+        final boolean isAllocationCounted;
+        int frames;
+        int measureCount;
+        int layoutCount;
+        long cpuNanos;
+        long allocatedBytes;
+        int events;
+        long eventCpuNanos;
+
+        Result(String name, int iterations, boolean isAllocationCounted) {
+            this.name = name;
+            this.iterations = iterations;
+            this.isAllocationCounted = isAllocationCounted;
+        }
+
+        void add(int frames, int measureCount, int layoutCount, long cpuNanos, long allocatedBytes,
+                 int events, long eventCpuNanos) {
+            this.frames += frames;
+            this.measureCount += measureCount;
+            this.layoutCount += layoutCount;
+            this.cpuNanos += cpuNanos;
+            this.allocatedBytes += allocatedBytes;
+            this.events += events;
+            this.eventCpuNanos += eventCpuNanos;
+        }
+
+        float measuresPerIteration() {
+            return (float) measureCount / iterations;
+        }
+
+        float layoutsPerIteration() {
+            return (float) layoutCount / iterations;
+        }
+
+        long cpuNanosPerFrame() {
+            return frames == 0 ? 0 : cpuNanos / frames;
+        }
+
+        long bytesPerFrame() {
+            return frames == 0 ? 0 : allocatedBytes / frames;
+        }
+
+        /**
+         * @return CPU time of dispatching one touch event
+         */
+        long cpuNanosPerEvent() {
+            return events == 0 ? 0 : eventCpuNanos / events;
+        }
+
+        @Override
+        public String toString() {
+            return name
+                    + " frames/op=" + (float) frames / iterations
+                    + " measures/op=" + measuresPerIteration()
+                    + " layouts/op=" + layoutsPerIteration()
+                    + " cpu/frame=" + cpuNanosPerFrame() / 1000f + "us"
+                    + " alloc/frame=" + (isAllocationCounted ? bytesPerFrame() + "B" : "n/a")
+                    + " cpu/event=" + cpuNanosPerEvent() / 1000f + "us";
+        }
+    }
+
+    /**
+     * bytes allocated by a thread,only loaded when it's supported,com.sun.management isn't on every JVM
+     */
+    private static final class AllocationCounter {
+
+        static boolean isSupported() {
+            try {
+                final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                return bean instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled();
+            } catch (LinkageError e) {
+                return false;
+            }
+        }
+
+        static long get(long threadId) {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                    .getThreadAllocatedBytes(threadId);
+        }
+    }
+
+    /**
+     * {@link DrawerLayout} counting its own measure and layout passes
+     */
+    static class CountingDrawerLayout extends DrawerLayout {
+        int measureCount;
+        int layoutCount;
+
+        CountingDrawerLayout(Context context, AttributeSet attrs) {
+            super(context, attrs);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            layoutCount++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+}
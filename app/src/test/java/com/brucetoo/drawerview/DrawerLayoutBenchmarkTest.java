@@ -0,0 +1,144 @@
+package com.brucetoo.drawerview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measure/layout passes,CPU time and allocation per frame of {@link DrawerLayout} hot paths,
+ * run by {@link DrawerBenchmark} on the JVM. Pass counts are exact and fail the build.
+ * The allocation budget is loose because Robolectric's shadows allocate much more than device,
+ * it only catches big regressions like per-frame bitmaps.CPU time is only reported,wall clock
+ * of a shared machine is too noisy to fail a build on
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DrawerLayoutBenchmarkTest {
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 20;
+
+    private static final long BYTES_PER_FRAME = 16 * 1024;
+
+    private DrawerBenchmark mBenchmark;
+    private DrawerLayout mDrawer;
+
+    @Before
+    public void setUp() throws Exception {
+        mBenchmark = new DrawerBenchmark();
+        mDrawer = mBenchmark.getDrawer();
+    }
+
+    @Test
+    public void drag_openAndClose() throws Exception {
+        DrawerBenchmark.Result result = mBenchmark.run("drag", new DrawerBenchmark.Scenario() {
+            @Override
+            public void reset(DrawerBenchmark benchmark) {
+                mDrawer.setDrawerOpen(false, false);
+            }
+
+            @Override
+            public void run(DrawerBenchmark benchmark) {
+                final float y = benchmark.getHeight() / 2f;
+                final float edge = benchmark.getWidth() - 2;
+                final float open = edge - benchmark.getDrawerSize() - 50;
+                benchmark.drag(edge, y, open, y, 30);
+                benchmark.settle();
+                assertTrue(mDrawer.isDrawerOpen());
+                benchmark.drag(open + 60, y, benchmark.getWidth(), y, 30);
+                benchmark.settle();
+                assertFalse(mDrawer.isDrawerOpen());
+            }
+        }, WARMUP, ITERATIONS);
+
+        assertNoLayout(result);
+        assertAllocationBudget(result);
+    }
+
+    @Test
+    public void fling_shortFastDrag_opensByVelocity() throws Exception {
+        DrawerBenchmark.Result result = mBenchmark.run("fling", new DrawerBenchmark.Scenario() {
+            @Override
+            public void reset(DrawerBenchmark benchmark) {
+                mDrawer.setDrawerOpen(false, false);
+            }
+
+            @Override
+            public void run(DrawerBenchmark benchmark) {
+                final float y = benchmark.getHeight() / 2f;
+                final float edge = benchmark.getWidth() - 2;
+                //a quarter of drawer in 2 frames,short of half,only its velocity opens it
+                benchmark.drag(edge, y, edge - benchmark.getDrawerSize() / 4f, y, 2);
+                benchmark.settle();
+                assertTrue(mDrawer.isDrawerOpen());
+            }
+        }, WARMUP, ITERATIONS);
+
+        assertNoLayout(result);
+        assertAllocationBudget(result);
+    }
+
+    @Test
+    public void openDrawer_closeDrawer() throws Exception {
+        DrawerBenchmark.Result result = mBenchmark.run("openClose", new DrawerBenchmark.Scenario() {
+            @Override
+            public void reset(DrawerBenchmark benchmark) {
+                mDrawer.setDrawerOpen(false, false);
+            }
+
+            @Override
+            public void run(DrawerBenchmark benchmark) {
+                mDrawer.openDrawer();
+                benchmark.settle();
+                assertTrue(mDrawer.isDrawerOpen());
+                mDrawer.closeDrawer();
+                benchmark.settle();
+                assertFalse(mDrawer.isDrawerOpen());
+            }
+        }, WARMUP, ITERATIONS);
+
+        assertNoLayout(result);
+        assertAllocationBudget(result);
+    }
+
+    @Test
+    public void smoothSlideTo_widerAndBack() throws Exception {
+        DrawerBenchmark.Result result = mBenchmark.run("smoothSlideTo", new DrawerBenchmark.Scenario() {
+            @Override
+            public void reset(DrawerBenchmark benchmark) {
+                mDrawer.setDrawerOpen(true, false);
+            }
+
+            @Override
+            public void run(DrawerBenchmark benchmark) {
+                final int width = mDrawer.getDragView().getWidth();
+                mDrawer.smoothSlideTo(width + 50, 250);
+                benchmark.settle();
+                assertEquals(width + 50, mDrawer.getDragView().getWidth());
+                mDrawer.smoothSlideTo(width, 250);
+                benchmark.settle();
+                assertEquals(width, mDrawer.getDragView().getWidth());
+            }
+        }, WARMUP, ITERATIONS);
+
+        //dragView is only measured at the start width and end width of each slide
+        assertTrue(result.toString(), result.measuresPerIteration() <= 2);
+        assertTrue(result.toString(), result.layoutsPerIteration() <= 2);
+        assertAllocationBudget(result);
+    }
+
+    private static void assertNoLayout(DrawerBenchmark.Result result) {
+        assertEquals(result.toString(), 0, result.measureCount);
+        assertEquals(result.toString(), 0, result.layoutCount);
+    }
+
+    private static void assertAllocationBudget(DrawerBenchmark.Result result) {
+        if (result.isAllocationCounted) {
+            assertTrue(result.toString(), result.bytesPerFrame() <= BYTES_PER_FRAME);
+        }
+    }
+}
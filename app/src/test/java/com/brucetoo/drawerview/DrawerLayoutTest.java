@@ -0,0 +1,71 @@
+package com.brucetoo.drawerview;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Behaviour of {@link DrawerLayout} of activity_main,driven frame by frame by {@link DrawerBenchmark}
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DrawerLayoutTest {
+
+    private DrawerBenchmark mBenchmark;
+    private DrawerLayout mDrawer;
+    private float mLastRatio = -1;
+
+    @Before
+    public void setUp() throws Exception {
+        mBenchmark = new DrawerBenchmark();
+        mDrawer = mBenchmark.getDrawer();
+        mDrawer.addDragRatioListener(new DrawerLayout.DragRatioListener() {
+            @Override
+            public void onDragRatioChange(float ratio, View dragView) {
+                mLastRatio = ratio;
+            }
+        });
+    }
+
+    @Test
+    public void smoothSlideTo_closedDrawer_appliesRatioAndEffects() throws Exception {
+        mDrawer.setDrawerOpen(false, false);
+        mBenchmark.settle();
+
+        mDrawer.smoothSlideTo(mBenchmark.getDrawerSize(), 250);
+        mBenchmark.settle();
+
+        //activity_main fades and scales drawer from 0,it must end fully shown
+        final View dragView = mDrawer.getDragView();
+        assertEquals(1f, mLastRatio, 0.001f);
+        assertEquals(1f, dragView.getAlpha(), 0.001f);
+        assertEquals(1f, dragView.getScaleX(), 0.001f);
+        assertEquals(1f, dragView.getScaleY(), 0.001f);
+        assertTrue(mDrawer.isDrawerOpen());
+    }
+
+    @Test
+    public void smoothSlideTo_closedDrawer_publishesSnapshot() throws Exception {
+        mDrawer.setDrawerOpen(false, false);
+        mBenchmark.settle();
+        final DrawerStateSnapshot snapshot = mDrawer.getStateSnapshot();
+        final DrawerStateSnapshot.State state = new DrawerStateSnapshot.State();
+        snapshot.read(state);
+        final int closedVersion = state.version;
+
+        mDrawer.smoothSlideTo(mBenchmark.getDrawerSize(), 250);
+        mBenchmark.settle();
+
+        snapshot.read(state);
+        assertTrue(state.version > closedVersion);
+        assertEquals(1f, state.ratio, 0.001f);
+        assertEquals(mDrawer.getDragView().getLeft(), state.position);
+        assertEquals(DrawerLayout.STATE_IDLE, state.state);
+    }
+}
@@ -0,0 +1,120 @@
+package com.brucetoo.drawerview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Operations of {@link DrawerMenuDiff} are applied to a copy of old items,
+ * they must turn it into new items and only report changed items as changed
+ */
+public class DrawerMenuDiffTest {
+
+    private static final long INSERTED = -1;
+
+    @Test
+    public void calculate_sameItems_isEmpty() throws Exception {
+        final List<DrawerMenuItem> items = items(1, 2, 3);
+
+        assertTrue(DrawerMenuDiff.calculate(items, items(1, 2, 3)).isEmpty());
+    }
+
+    @Test
+    public void calculate_insertAndRemove_turnsOldIntoNew() throws Exception {
+        assertDiff(items(1, 2, 3, 4, 5), items(0, 2, 3, 6, 7, 5, 8));
+        assertDiff(items(), items(1, 2, 3));
+        assertDiff(items(1, 2, 3), items());
+        assertDiff(items(1, 2, 3, 4), items(4, 3, 2, 1));
+    }
+
+    @Test
+    public void calculate_adjacentInserts_areMerged() throws Exception {
+        final Recorder recorder = new Recorder(items(1, 4));
+
+        DrawerMenuDiff.calculate(items(1, 4), items(1, 2, 3, 4)).dispatchTo(recorder);
+
+        assertEquals(1, recorder.inserts);
+        assertEquals(0, recorder.removes);
+    }
+
+    @Test
+    public void calculate_changedTitle_isReportedAsChange() throws Exception {
+        final List<DrawerMenuItem> newItems = items(1, 2, 3);
+        newItems.set(1, new DrawerMenuItem(2, "renamed"));
+        final Recorder recorder = assertDiff(items(1, 2, 3), newItems);
+
+        assertEquals(Arrays.asList(1), recorder.changed);
+    }
+
+    private static Recorder assertDiff(List<DrawerMenuItem> oldItems, List<DrawerMenuItem> newItems) {
+        final Recorder recorder = new Recorder(oldItems);
+        DrawerMenuDiff.calculate(oldItems, newItems).dispatchTo(recorder);
+
+        final List<Long> newIds = ids(newItems);
+        assertEquals(newIds.size(), recorder.ids.size());
+        for (int i = 0; i < newIds.size(); i++) {
+            //kept items must end up where new items have them
+            if (recorder.ids.get(i) != INSERTED) {
+                assertEquals(newIds.get(i), recorder.ids.get(i));
+            }
+        }
+        return recorder;
+    }
+
+    private static List<DrawerMenuItem> items(long... ids) {
+        final List<DrawerMenuItem> items = new ArrayList<>();
+        for (long id : ids) {
+            items.add(new DrawerMenuItem(id, "item " + id));
+        }
+        return items;
+    }
+
+    private static List<Long> ids(List<DrawerMenuItem> items) {
+        final List<Long> ids = new ArrayList<>();
+        for (DrawerMenuItem item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * applies operations to ids of old items,inserted items are {@link DrawerMenuDiffTest#INSERTED}
+     */
+    private static final class Recorder implements DrawerMenuDiff.Callback {
+        final List<Long> ids;
+        final List<Integer> changed = new ArrayList<>();
+        int inserts;
+        int removes;
+
+        Recorder(List<DrawerMenuItem> oldItems) {
+            ids = ids(oldItems);
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            inserts++;
+            for (int i = 0; i < count; i++) {
+                ids.add(position + i, INSERTED);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removes++;
+            for (int i = 0; i < count; i++) {
+                ids.remove(position);
+            }
+        }
+
+        @Override
+        public void onChanged(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                changed.add(position + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.brucetoo.drawerview;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reads of {@link DrawerStateSnapshot} on other threads while it's published
+ */
+public class DrawerStateSnapshotTest {
+
+    private static final int PUBLISHES = 200000;
+
+    @Test
+    public void read_returnsLatestPublish() throws Exception {
+        final DrawerStateSnapshot snapshot = new DrawerStateSnapshot();
+        final DrawerStateSnapshot.State state = new DrawerStateSnapshot.State();
+        assertEquals(0, snapshot.getVersion());
+
+        snapshot.publish(100, 0.5f, DrawerLayout.STATE_DRAGGING, 200, DrawerLayout.EDGE_RIGHT, 16);
+        snapshot.read(state);
+
+        assertEquals(1, state.version);
+        assertEquals(100, state.position);
+        assertEquals(0.5f, state.ratio, 0);
+        assertEquals(DrawerLayout.STATE_DRAGGING, state.state);
+        assertEquals(200, state.dragMaxWidth);
+        assertEquals(DrawerLayout.EDGE_RIGHT, state.edge);
+        assertEquals(16, state.timeMillis);
+    }
+
+    @Test
+    public void publish_sameState_keepsVersion() throws Exception {
+        final DrawerStateSnapshot snapshot = new DrawerStateSnapshot();
+        snapshot.publish(100, 0.5f, DrawerLayout.STATE_IDLE, 200, DrawerLayout.EDGE_RIGHT, 16);
+
+        snapshot.publish(100, 0.5f, DrawerLayout.STATE_IDLE, 200, DrawerLayout.EDGE_RIGHT, 32);
+        assertEquals(1, snapshot.getVersion());
+        snapshot.publish(99, 0.5f, DrawerLayout.STATE_IDLE, 200, DrawerLayout.EDGE_RIGHT, 48);
+        assertEquals(2, snapshot.getVersion());
+    }
+
+    @Test
+    public void read_duringPublishes_neverTorn() throws Exception {
+        final DrawerStateSnapshot snapshot = new DrawerStateSnapshot();
+        snapshot.publish(0, 0, 0, 0, 0, 0);
+        final AtomicBoolean done = new AtomicBoolean();
+        final String[] failure = new String[1];
+        final Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final DrawerStateSnapshot.State state = new DrawerStateSnapshot.State();
+                int lastVersion = 0;
+                while (!done.get() && failure[0] == null) {
+                    snapshot.read(state);
+                    //every value of a publish is derived from the same i
+                    final int i = state.position;
+                    if (state.dragMaxWidth != i * 2 || state.ratio != i / (float) PUBLISHES
+                            || state.timeMillis != i * 3L || state.version < lastVersion) {
+                        failure[0] = "torn read at " + i + ",version " + state.version;
+                    }
+                    lastVersion = state.version;
+                }
+            }
+        });
+        reader.start();
+        for (int i = 1; i <= PUBLISHES; i++) {
+            snapshot.publish(i, i / (float) PUBLISHES, DrawerLayout.STATE_SETTLING, i * 2,
+                    DrawerLayout.EDGE_RIGHT, i * 3L);
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure[0], failure[0]);
+        assertEquals(PUBLISHES + 1, snapshot.getVersion());
+    }
+}
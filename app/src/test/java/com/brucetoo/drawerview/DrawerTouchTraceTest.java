@@ -0,0 +1,135 @@
+package com.brucetoo.drawerview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+/**
+ * Record touch traces of {@link DrawerLayout} and replay them with {@link TouchTraceReplayer}.
+ * Traces recorded on devices are put in src/test/resources/touch-traces as *.trace,each of them is replayed
+ * and must settle the same way,in about the same time.
+ * Per event cost of each trace is compared with its baseline in touch-traces/baselines.properties,
+ * see {@link TraceBaselines},run with -DupdateTraceBaselines=true to write measured costs as new baselines
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DrawerTouchTraceTest {
+
+    private static final String CORPUS_DIR = "touch-traces";
+    private static final String TRACE_SUFFIX = ".trace";
+    private static final String UPDATE_BASELINES = "updateTraceBaselines";
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 10;
+
+    //device density and refresh rate differ from Robolectric,allow some frames
+    private static final long SETTLE_TOLERANCE_MILLIS = 3 * DrawerBenchmark.FRAME_MILLIS;
+
+    private DrawerBenchmark mBenchmark;
+    private DrawerLayout mDrawer;
+
+    @Before
+    public void setUp() throws Exception {
+        mBenchmark = new DrawerBenchmark();
+        mDrawer = mBenchmark.getDrawer();
+    }
+
+    @Test
+    public void read_returnsRecordedEventsAndTimeline() throws Exception {
+        final byte[] trace = recordFling(30);
+
+        TouchTraceReplayer replayer = TouchTraceReplayer.read(trace);
+
+        //down,moves and up
+        assertEquals(32, replayer.getEventCount());
+        assertEquals(DrawerLayout.EDGE_RIGHT, replayer.getEdge());
+        assertTrue(replayer.isRecordedOpen());
+        assertTrue(replayer.getRecordedSettleMillis() > 0);
+    }
+
+    @Test
+    public void replay_fling_settlesLikeRecording() throws Exception {
+        final byte[] trace = recordFling(3);
+        TouchTraceReplayer replayer = TouchTraceReplayer.read(trace);
+
+        DrawerBenchmark.Result result = replayer.replay(mBenchmark, WARMUP, ITERATIONS);
+
+        assertReplayMatches("fling", replayer, result);
+    }
+
+    @Test
+    public void replay_corpus() throws Exception {
+        final URL corpus = getClass().getClassLoader().getResource(CORPUS_DIR);
+        final File corpusDir = corpus == null ? null : new File(corpus.toURI());
+        final File[] traces = corpusDir == null ? null : corpusDir.listFiles();
+        if (traces == null) {
+            return;
+        }
+        final TraceBaselines baselines = TraceBaselines.load(corpusDir, CORPUS_DIR);
+        final boolean update = Boolean.getBoolean(UPDATE_BASELINES);
+        for (File file : traces) {
+            if (!file.getName().endsWith(TRACE_SUFFIX)) {
+                continue;
+            }
+            InputStream in = new FileInputStream(file);
+            TouchTraceReplayer replayer;
+            try {
+                replayer = TouchTraceReplayer.read(in);
+            } finally {
+                in.close();
+            }
+            if (replayer.getEdge() != mDrawer.getDrawerEdge()) {
+                continue;//activity_main only has a right drawer
+            }
+            final DrawerBenchmark.Result result = replayer.replay(mBenchmark, WARMUP, ITERATIONS);
+            assertReplayMatches(file.getName(), replayer, result);
+            if (update) {
+                baselines.put(file.getName(), result.cpuNanosPerEvent());
+            } else {
+                assertTrue(file.getName() + " baseline cpu/event=" + baselines.get(file.getName()) + "ns," + result,
+                        baselines.isWithinBaseline(file.getName(), result.cpuNanosPerEvent()));
+            }
+        }
+        if (update) {
+            baselines.save();
+        }
+    }
+
+    /**
+     * drag from right edge past half of drawer in frames,then release and settle
+     */
+    private byte[] recordFling(int frames) {
+        mDrawer.setDrawerOpen(false, false);
+        mBenchmark.settle();
+        final DrawerTouchTrace trace = new DrawerTouchTrace();
+        mDrawer.setTouchTrace(trace);
+        final float y = mBenchmark.getHeight() / 2f;
+        final float edge = mBenchmark.getWidth() - 2;
+        mBenchmark.drag(edge, y, edge - mBenchmark.getDrawerSize() * 3 / 4f, y, frames);
+        mBenchmark.settle();
+        mDrawer.setTouchTrace(null);
+        assertFalse(trace.isFull());
+        return trace.toByteArray();
+    }
+
+    private static void assertReplayMatches(String name, TouchTraceReplayer replayer, DrawerBenchmark.Result result) {
+        final String message = name + " recorded open=" + replayer.isRecordedOpen()
+                + " settle=" + replayer.getRecordedSettleMillis() + "ms"
+                + ",replayed open=" + replayer.isReplayedOpen()
+                + " settle=" + replayer.getReplayedSettleMillis() + "ms," + result;
+        System.out.println(message);
+        assertEquals(message, replayer.isRecordedOpen(), replayer.isReplayedOpen());
+        if (replayer.getRecordedSettleMillis() >= 0) {
+            assertTrue(message, Math.abs(replayer.getRecordedSettleMillis() - replayer.getReplayedSettleMillis())
+                    <= Math.max(SETTLE_TOLERANCE_MILLIS, replayer.getRecordedSettleMillis() / 2));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.brucetoo.drawerview;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Values and allocation of {@link DrawerWidthAnimation}
+ */
+public class DrawerWidthAnimationTest {
+
+    private static final long FRAME_MILLIS = 16;
+
+    @Test
+    public void update_reachesTargetAtDuration() throws Exception {
+        DrawerWidthAnimation animation = new DrawerWidthAnimation();
+        animation.start(200, 300, 500, 1000);
+
+        assertTrue(animation.update(1000));
+        assertEquals(200, animation.getValue());
+        assertTrue(animation.update(1250));
+        assertEquals(250, animation.getValue());
+        assertFalse(animation.update(1500));
+        assertEquals(300, animation.getValue());
+        assertFalse(animation.isRunning());
+    }
+
+    @Test
+    public void start_whileRunning_retargetsFromCurrentValue() throws Exception {
+        DrawerWidthAnimation animation = new DrawerWidthAnimation();
+        animation.start(200, 300, 500, 0);
+        animation.update(250);
+        final int current = animation.getValue();
+
+        animation.start(animation.getValue(), 150, 500, 250);
+
+        assertTrue(animation.update(250));
+        assertEquals(current, animation.getValue());
+        assertEquals(150, animation.getTarget());
+        assertFalse(animation.update(750));
+        assertEquals(150, animation.getValue());
+    }
+
+    @Test
+    public void update_doesNotAllocatePerFrame() throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        DrawerWidthAnimation animation = new DrawerWidthAnimation();
+
+        //warm up,class loading and interpreter state are not part of a frame
+        for (int i = 0; i < 100; i++) {
+            runFullAnimation(animation);
+        }
+
+        //reading allocated bytes may allocate itself,measure that first
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        final long readCost = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadBean.getThreadAllocatedBytes(threadId);
+        final int frames = runFullAnimation(animation);
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - readCost;
+
+        assertTrue(frames > 1);
+        assertEquals("bytes allocated across " + frames + " frames", 0, allocated);
+    }
+
+    private static int runFullAnimation(DrawerWidthAnimation animation) {
+        long now = 0;
+        int frames = 0;
+        animation.start(150, 250, 500, now);
+        while (animation.update(now)) {
+            now += FRAME_MILLIS;
+            frames++;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,178 @@
+package com.brucetoo.drawerview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feed a {@link DrawerTouchTrace} back through {@link DrawerLayout} of a {@link DrawerBenchmark}
+ * and compare settle decision and time-to-settle with the recorded timeline.
+ * Events are batched into the frame their time falls in,historical samples are replayed as
+ * moves of their own.Coordinates are scaled when trace was recorded on a layout of another size
+ */
+final class TouchTraceReplayer implements DrawerTouchTrace.Visitor {
+
+    private int mTraceWidth;
+    private int mTraceHeight;
+    private int mTraceDragMaxWidth;
+    private int mEdge;
+    private final List<Sample> mSamples = new ArrayList<>();
+    private int mInitialPosition = -1;
+    private int mFinalPosition = -1;
+    private long mLastUpTime = -1;
+    private long mIdleTime = -1;
+    private int mState = DrawerLayout.STATE_IDLE;
+
+    //replayed result of last iteration
+    private boolean mIsReplayedOpen;
+    private int mReplayedSettleFrames;
+
+    static TouchTraceReplayer read(byte[] trace) throws IOException {
+        TouchTraceReplayer replayer = new TouchTraceReplayer();
+        DrawerTouchTrace.read(trace, replayer);
+        return replayer;
+    }
+
+    static TouchTraceReplayer read(InputStream trace) throws IOException {
+        TouchTraceReplayer replayer = new TouchTraceReplayer();
+        DrawerTouchTrace.read(trace, replayer);
+        return replayer;
+    }
+
+    @Override
+    public void onHeader(int width, int height, int dragMaxWidth, int edge) {
+        mTraceWidth = width;
+        mTraceHeight = height;
+        mTraceDragMaxWidth = dragMaxWidth;
+        mEdge = edge;
+    }
+
+    @Override
+    public void onHistoricalSample(long time, float x, float y) {
+        mSamples.add(new Sample(MotionEvent.ACTION_MOVE, time, x, y));
+    }
+
+    @Override
+    public void onEvent(int action, long time, float x, float y) {
+        //only the first pointer is recorded,other pointers' actions mean nothing to it
+        if (action == MotionEvent.ACTION_DOWN || action == MotionEvent.ACTION_MOVE
+                || action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            mSamples.add(new Sample(action, time, x, y));
+        }
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            mLastUpTime = time;
+            mIdleTime = -1;
+        }
+    }
+
+    @Override
+    public void onPosition(long time, int position) {
+        if (mInitialPosition == -1) {
+            mInitialPosition = position;
+        }
+        mFinalPosition = position;
+    }
+
+    @Override
+    public void onState(long time, int state) {
+        if (state == DrawerLayout.STATE_IDLE && mState != DrawerLayout.STATE_IDLE && mLastUpTime != -1) {
+            mIdleTime = time;
+        }
+        mState = state;
+    }
+
+    int getEdge() {
+        return mEdge;
+    }
+
+    int getEventCount() {
+        return mSamples.size();
+    }
+
+    boolean isRecordedOpen() {
+        return isOpen(mFinalPosition);
+    }
+
+    /**
+     * @return time from last release to drawer idle on recording device,-1 if it never settled
+     */
+    long getRecordedSettleMillis() {
+        return mIdleTime == -1 ? -1 : mIdleTime - mLastUpTime;
+    }
+
+    boolean isReplayedOpen() {
+        return mIsReplayedOpen;
+    }
+
+    long getReplayedSettleMillis() {
+        return mReplayedSettleFrames * DrawerBenchmark.FRAME_MILLIS;
+    }
+
+    private boolean isOpen(int position) {
+        final int extent = mEdge == DrawerLayout.EDGE_TOP || mEdge == DrawerLayout.EDGE_BOTTOM
+                ? mTraceHeight : mTraceWidth;
+        return position < extent - mTraceDragMaxWidth / 2;
+    }
+
+    /**
+     * replay warmup times without recording,then iterations times recorded
+     */
+    DrawerBenchmark.Result replay(DrawerBenchmark benchmark, int warmup, int iterations) {
+        return benchmark.run("replay", new DrawerBenchmark.Scenario() {
+            @Override
+            public void reset(DrawerBenchmark benchmark) {
+                benchmark.getDrawer().setDrawerOpen(isOpen(mInitialPosition), false);
+            }
+
+            @Override
+            public void run(DrawerBenchmark benchmark) {
+                replayOnce(benchmark);
+            }
+        }, warmup, iterations);
+    }
+
+    private void replayOnce(DrawerBenchmark benchmark) {
+        final float scaleX = mTraceWidth == 0 ? 1f : (float) benchmark.getWidth() / mTraceWidth;
+        final float scaleY = mTraceHeight == 0 ? 1f : (float) benchmark.getHeight() / mTraceHeight;
+        final MotionEvent[] batch = new MotionEvent[mSamples.size()];
+        //trace time 0 is the start of the first frame
+        final long baseTime = SystemClock.uptimeMillis() - (mSamples.isEmpty() ? 0 : mSamples.get(0).time);
+        long downTime = baseTime;
+        long frameTime = baseTime;
+        int index = 0;
+        while (index < mSamples.size()) {
+            frameTime += DrawerBenchmark.FRAME_MILLIS;
+            int count = 0;
+            while (index < mSamples.size() && baseTime + mSamples.get(index).time <= frameTime) {
+                final Sample sample = mSamples.get(index++);
+                final long eventTime = baseTime + sample.time;
+                if (sample.action == MotionEvent.ACTION_DOWN) {
+                    downTime = eventTime;
+                }
+                batch[count++] = MotionEvent.obtain(downTime, eventTime, sample.action,
+                        sample.x * scaleX, sample.y * scaleY, 0);
+            }
+            benchmark.frame(batch, count);
+        }
+        mReplayedSettleFrames = benchmark.settle();
+        mIsReplayedOpen = benchmark.getDrawer().isDrawerOpen();
+    }
+
+    private static final class Sample {
+        final int action;
+        final long time;
+        final float x;
+        final float y;
+
+        Sample(int action, long time, float x, float y) {
+            this.action = action;
+            this.time = time;
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
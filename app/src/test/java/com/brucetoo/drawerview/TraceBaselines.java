@@ -0,0 +1,102 @@
+package com.brucetoo.drawerview;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Baseline CPU cost per event of each trace in a touch trace corpus,kept in baselines.properties
+ * next to the traces.Baselines are read from the corpus on the test classpath and written back to
+ * src/test/resources of the module,which is found from the corpus itself,not the working directory
+ */
+final class TraceBaselines {
+
+    static final String FILE_NAME = "baselines.properties";
+    //replayed cost per event may exceed its baseline this much,machines running tests differ
+    static final float TOLERANCE = 1.5f;
+    private static final String MODULE_MARKER = "build.gradle";
+    private static final String TEST_RESOURCES = "src/test/resources";
+
+    private final Properties mBaselines = new Properties();
+    private final File mCorpusDir;
+    private final String mCorpusName;
+
+    private TraceBaselines(File corpusDir, String corpusName) {
+        mCorpusDir = corpusDir;
+        mCorpusName = corpusName;
+    }
+
+    /**
+     * @param corpusDir  corpus directory on the test classpath
+     * @param corpusName name of corpus directory in src/test/resources
+     */
+    static TraceBaselines load(File corpusDir, String corpusName) throws IOException {
+        final TraceBaselines baselines = new TraceBaselines(corpusDir, corpusName);
+        final File file = new File(corpusDir, FILE_NAME);
+        if (file.isFile()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                baselines.mBaselines.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        return baselines;
+    }
+
+    /**
+     * @return baseline of trace in nanos per event,-1 if it has none
+     */
+    long get(String trace) {
+        final String baseline = mBaselines.getProperty(trace);
+        return baseline == null ? -1 : Long.parseLong(baseline);
+    }
+
+    void put(String trace, long nanosPerEvent) {
+        mBaselines.setProperty(trace, String.valueOf(nanosPerEvent));
+    }
+
+    /**
+     * @return true if cost is within {@link TraceBaselines#TOLERANCE} of the baseline,or trace has none
+     */
+    boolean isWithinBaseline(String trace, long nanosPerEvent) {
+        final long baseline = get(trace);
+        return baseline < 0 || nanosPerEvent <= baseline * TOLERANCE;
+    }
+
+    /**
+     * write baselines into src/test/resources of the module containing the corpus
+     */
+    void save() throws IOException {
+        final File moduleDir = findModuleDir(mCorpusDir);
+        if (moduleDir == null) {
+            throw new IOException("No module with " + MODULE_MARKER + " contains " + mCorpusDir);
+        }
+        final File file = new File(new File(new File(moduleDir, TEST_RESOURCES), mCorpusName), FILE_NAME);
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Can't create " + file.getParent());
+        }
+        OutputStream out = new FileOutputStream(file);
+        try {
+            mBaselines.store(out, "cpu nanos per event of each trace in " + mCorpusName);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return the closest directory containing dir with a build.gradle,null if there is none
+     */
+    static File findModuleDir(File dir) {
+        for (File parent = dir.getAbsoluteFile(); parent != null; parent = parent.getParentFile()) {
+            if (new File(parent, MODULE_MARKER).isFile()) {
+                return parent;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.brucetoo.drawerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reading,comparing and writing back {@link TraceBaselines} of a corpus built into a module
+ */
+public class TraceBaselinesTest {
+
+    private static final String CORPUS = "touch-traces";
+
+    private File mModuleDir;
+    private File mBuiltCorpus;
+
+    @Before
+    public void setUp() throws Exception {
+        mModuleDir = File.createTempFile("module", "");
+        assertTrue(mModuleDir.delete() && mModuleDir.mkdir());
+        touch(new File(mModuleDir, "build.gradle"), "");
+        //like gradle copies test resources into build
+        mBuiltCorpus = new File(mModuleDir, "build/resources/test/" + CORPUS);
+        assertTrue(mBuiltCorpus.mkdirs());
+        touch(new File(mBuiltCorpus, TraceBaselines.FILE_NAME), "fling.trace=1000\n");
+    }
+
+    @Test
+    public void isWithinBaseline_appliesTolerance() throws Exception {
+        final TraceBaselines baselines = TraceBaselines.load(mBuiltCorpus, CORPUS);
+
+        assertEquals(1000, baselines.get("fling.trace"));
+        assertTrue(baselines.isWithinBaseline("fling.trace", 1500));
+        assertFalse(baselines.isWithinBaseline("fling.trace", 1501));
+        //a trace without baseline is never failed on cost
+        assertEquals(-1, baselines.get("new.trace"));
+        assertTrue(baselines.isWithinBaseline("new.trace", Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void save_writesIntoModuleSourcesNotWorkingDir() throws Exception {
+        final TraceBaselines baselines = TraceBaselines.load(mBuiltCorpus, CORPUS);
+        baselines.put("new.trace", 2000);
+
+        baselines.save();
+
+        final File source = new File(mModuleDir, "src/test/resources/" + CORPUS);
+        final TraceBaselines saved = TraceBaselines.load(source, CORPUS);
+        assertEquals(1000, saved.get("fling.trace"));
+        assertEquals(2000, saved.get("new.trace"));
+        assertEquals(mModuleDir.getAbsoluteFile(), TraceBaselines.findModuleDir(mBuiltCorpus));
+    }
+
+    private static void touch(File file, String content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}